@@ -20,8 +20,19 @@
 
 package com.qmdeve.liquidglass;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+/**
+ * @deprecated Every glass instance owns its own {@link GlassParams} snapshot, use
+ * {@link LiquidGlass#setParams} or the setters of the view instead.
+ * <p>
+ * Until this class is removed, the fields are still read once when a glass is created and become
+ * its starting parameters, see {@link #toParams()}. Unlike before, changing them afterwards does
+ * not reach glass that already exists, and {@code LiquidGlassView} only takes the values it has no
+ * setter for ({@link #ECCENTRIC_FACTOR}, {@link #DEPTH_EFFECT}) from here
+ */
+@Deprecated
 public class Config {
     public static float DISPERSION, DEPTH_EFFECT = 0.3f;
     public static int WIDTH, HEIGHT;
@@ -39,6 +50,32 @@ public class Config {
         if (overrides != null) overrides.apply();
     }
 
+    /**
+     * Snapshot of the current field values, the parameters a newly created glass starts from.
+     * A {@link #CHROMA_MULTIPLIER} of 0, its default, counts as not set and keeps the
+     * saturation of the {@link GlassParams} default
+     *
+     * @return GlassParams
+     */
+    @NonNull
+    public static GlassParams toParams() {
+        return new GlassParams.Builder()
+                .size(WIDTH, HEIGHT)
+                .cornerRadius(CORNER_RADIUS_PX)
+                .eccentricFactor(ECCENTRIC_FACTOR)
+                .refractionHeight(REFRACTION_HEIGHT)
+                .refractionOffset(REFRACTION_OFFSET)
+                .contrast(CONTRAST)
+                .whitePoint(WHITE_POINT)
+                .chromaMultiplier(CHROMA_MULTIPLIER != 0f ? CHROMA_MULTIPLIER : 1f)
+                .blurRadius(BLUR_RADIUS)
+                .dispersion(DISPERSION)
+                .depthEffect(DEPTH_EFFECT)
+                .tintAlpha(TINT_ALPHA)
+                .tintColor(TINT_COLOR_RED, TINT_COLOR_GREEN, TINT_COLOR_BLUE)
+                .build();
+    }
+
     public static final class Overrides {
         Float cornerRadius, refractionHeight, refractionOffset, contrast, whitePoint, chromaMultiplier, blurRadius, tintAlpha, tintColorRed, tintColorGreen, tintColorBlue, dispersion;
         Integer width, height;
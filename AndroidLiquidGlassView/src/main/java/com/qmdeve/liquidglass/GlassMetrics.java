@@ -0,0 +1,153 @@
+/**
+ * Copyright 2025 QmDeve
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author QmDeve
+ * @github https://github.com/QmDeve
+ * @since 2025-11-04
+ */
+
+
+package com.qmdeve.liquidglass;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Counters and timings of a single glass instance.
+ * <p>
+ * Filled by {@link LiquidGlass#getMetrics(GlassMetrics)}, so one instance can be polled every
+ * frame without allocating. Counters are totals since the glass was bound, take the difference
+ * of two samples for per-interval values.
+ */
+public final class GlassMetrics {
+
+    /**
+     * Receives metrics at most once per interval, on the main thread
+     */
+    public interface Listener {
+        /**
+         * @param metrics reused for every callback, copy it with {@link #set(GlassMetrics)} to keep it
+         */
+        void onMetrics(@NonNull GlassMetrics metrics);
+    }
+
+    /** {@link System#nanoTime()} when the sample was taken */
+    public long timestampNanos;
+
+    /** Pre-draws that recorded the source or rebuilt an effect */
+    public long framesRendered;
+    /** Pre-draws that reused the previous output unchanged */
+    public long framesSkipped;
+    /** Pre-draws skipped entirely because the glass could not be seen */
+    public long framesSuspended;
+
+    /** Frames the source was recorded, see {@link LiquidGlass#getRecordsPerformed()} */
+    public long recordsPerformed;
+    /** Frames the current recording of the source was reused */
+    public long recordsSkipped;
+    /** Recordings per second over the last second with a pre-draw */
+    public float recordsPerSecond;
+    /** Duration of the last {@code record()} call, including skipped ones */
+    public long lastRecordNanos;
+    /** Sum of all {@code record()} durations */
+    public long totalRecordNanos;
+
+    /** Times the source was rendered into a snapshot, see {@link LiquidGlass#setSnapshotMode(boolean, float)} */
+    public long snapshotsTaken;
+
+    /** Times the composited glass was frozen into the output cache */
+    public long outputCacheBuilds;
+    /** Draws served from the output cache without running the effects */
+    public long outputCacheHits;
+
+    /** Rebuilds per stage, indexed by the bit position of {@code GlassParams.STAGE_*} */
+    public final long[] stageRebuilds = new long[GlassParams.STAGE_COUNT];
+
+    /** Blur effect cache hits and misses, process-wide since the cache is shared */
+    public long blurCacheHits, blurCacheMisses;
+
+    /** Size of the offscreen buffer the effects run on, 0 before the first frame */
+    public int bufferWidth, bufferHeight;
+
+    /**
+     * Rebuilds of one stage
+     *
+     * @param stage one of {@code GlassParams.STAGE_*}
+     * @return long
+     */
+    public long getStageRebuildCount(int stage) {
+        return stageRebuilds[Integer.numberOfTrailingZeros(stage)];
+    }
+
+    /**
+     * Average {@code record()} duration in nanoseconds
+     *
+     * @return long, 0 before the first frame
+     */
+    public long getAverageRecordNanos() {
+        long calls = recordsPerformed + recordsSkipped;
+        return calls == 0 ? 0 : totalRecordNanos / calls;
+    }
+
+    public void set(@NonNull GlassMetrics other) {
+        timestampNanos = other.timestampNanos;
+        framesRendered = other.framesRendered;
+        framesSkipped = other.framesSkipped;
+        framesSuspended = other.framesSuspended;
+        recordsPerformed = other.recordsPerformed;
+        recordsSkipped = other.recordsSkipped;
+        recordsPerSecond = other.recordsPerSecond;
+        lastRecordNanos = other.lastRecordNanos;
+        totalRecordNanos = other.totalRecordNanos;
+        snapshotsTaken = other.snapshotsTaken;
+        outputCacheBuilds = other.outputCacheBuilds;
+        outputCacheHits = other.outputCacheHits;
+        System.arraycopy(other.stageRebuilds, 0, stageRebuilds, 0, stageRebuilds.length);
+        blurCacheHits = other.blurCacheHits;
+        blurCacheMisses = other.blurCacheMisses;
+        bufferWidth = other.bufferWidth;
+        bufferHeight = other.bufferHeight;
+    }
+
+    /**
+     * Zero every value, as reported by a glass that has not drawn yet
+     */
+    public void reset() {
+        timestampNanos = 0;
+        framesRendered = framesSkipped = framesSuspended = 0;
+        recordsPerformed = recordsSkipped = 0;
+        recordsPerSecond = 0;
+        lastRecordNanos = totalRecordNanos = 0;
+        snapshotsTaken = 0;
+        outputCacheBuilds = outputCacheHits = 0;
+        Arrays.fill(stageRebuilds, 0);
+        blurCacheHits = blurCacheMisses = 0;
+        bufferWidth = bufferHeight = 0;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "GlassMetrics{frames=" + framesRendered + "/" + framesSkipped + "/" + framesSuspended
+                + ", records=" + recordsPerformed + "/" + recordsSkipped
+                + ", recordsPerSecond=" + recordsPerSecond
+                + ", recordNanos=" + lastRecordNanos + "/" + getAverageRecordNanos()
+                + ", snapshots=" + snapshotsTaken
+                + ", outputCache=" + outputCacheHits + "/" + outputCacheBuilds
+                + ", blurCache=" + blurCacheHits + "/" + blurCacheMisses
+                + ", buffer=" + bufferWidth + "x" + bufferHeight + "}";
+    }
+}
@@ -0,0 +1,376 @@
+/**
+ * Copyright 2025 QmDeve
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author QmDeve
+ * @github https://github.com/QmDeve
+ * @since 2025-11-01
+ */
+
+package com.qmdeve.liquidglass;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Immutable snapshot of the glass parameters owned by a single glass instance.
+ * <p>
+ * Every snapshot carries a process-unique {@link #version}, so two snapshots can be
+ * compared with a single integer comparison.
+ */
+public final class GlassParams {
+    private static final AtomicInteger VERSIONS = new AtomicInteger();
+
+    public static final int STAGE_REFRACTION = 1;
+    public static final int STAGE_BLUR = 1 << 1;
+    public static final int STAGE_MATERIAL = 1 << 2;
+    public static final int STAGE_DISPERSION = 1 << 3;
+    public static final int STAGE_TINT = 1 << 4;
+    public static final int STAGE_ALL = STAGE_REFRACTION | STAGE_BLUR | STAGE_MATERIAL | STAGE_DISPERSION | STAGE_TINT;
+    public static final int STAGE_COUNT = 5;
+
+    public static final int DISPERSION_QUALITY_AUTO = 0;
+    public static final int DISPERSION_QUALITY_LOW = 1;
+    public static final int DISPERSION_QUALITY_MEDIUM = 3;
+    public static final int DISPERSION_QUALITY_HIGH = 7;
+
+    public static final GlassParams DEFAULT = new Builder().build();
+
+    public final int version;
+    public final int width, height;
+    public final float cornerRadius, eccentricFactor, refractionHeight, refractionOffset;
+    public final float contrast, whitePoint, chromaMultiplier;
+    public final float blurRadius, dispersion, depthEffect;
+    public final float tintAlpha, tintColorRed, tintColorGreen, tintColorBlue;
+    public final int dispersionQuality, maxDispersionQuality;
+    public final boolean fusedShader, splitRim, blurDownsample, displacementMap;
+
+    private GlassParams(Builder b) {
+        version = VERSIONS.incrementAndGet();
+        width = b.width;
+        height = b.height;
+        cornerRadius = b.cornerRadius;
+        eccentricFactor = b.eccentricFactor;
+        refractionHeight = b.refractionHeight;
+        refractionOffset = b.refractionOffset;
+        contrast = b.contrast;
+        whitePoint = b.whitePoint;
+        chromaMultiplier = b.chromaMultiplier;
+        blurRadius = b.blurRadius;
+        dispersion = b.dispersion;
+        depthEffect = b.depthEffect;
+        tintAlpha = b.tintAlpha;
+        tintColorRed = b.tintColorRed;
+        tintColorGreen = b.tintColorGreen;
+        tintColorBlue = b.tintColorBlue;
+        dispersionQuality = b.dispersionQuality;
+        maxDispersionQuality = b.maxDispersionQuality;
+        fusedShader = b.fusedShader;
+        splitRim = b.splitRim;
+        blurDownsample = b.blurDownsample;
+        displacementMap = b.displacementMap;
+    }
+
+    /**
+     * Compute which render stages read a value that differs between the two snapshots
+     *
+     * @param other the previously applied snapshot, or null if none was applied yet
+     * @return bitmask of {@code STAGE_*} flags
+     */
+    public int diff(@Nullable GlassParams other) {
+        if (other == null) return STAGE_ALL;
+        if (other.version == version) return 0;
+        if (fusedShader != other.fusedShader || splitRim != other.splitRim
+                || displacementMap != other.displacementMap) {
+            return STAGE_ALL;
+        }
+
+        int dirty = 0;
+        boolean shape = width != other.width
+                || height != other.height
+                || cornerRadius != other.cornerRadius
+                || refractionHeight != other.refractionHeight
+                || refractionOffset != other.refractionOffset;
+        if (shape || eccentricFactor != other.eccentricFactor) {
+            dirty |= STAGE_REFRACTION;
+        }
+        if (blurRadius != other.blurRadius || blurDownsample != other.blurDownsample) {
+            dirty |= STAGE_BLUR;
+        }
+        if (contrast != other.contrast
+                || whitePoint != other.whitePoint
+                || chromaMultiplier != other.chromaMultiplier) {
+            dirty |= STAGE_MATERIAL;
+        }
+        if (shape || dispersion != other.dispersion || depthEffect != other.depthEffect
+                || dispersionQuality != other.dispersionQuality
+                || maxDispersionQuality != other.maxDispersionQuality) {
+            dirty |= STAGE_DISPERSION;
+        }
+        if (tintAlpha != other.tintAlpha
+                || tintColorRed != other.tintColorRed
+                || tintColorGreen != other.tintColorGreen
+                || tintColorBlue != other.tintColorBlue) {
+            dirty |= STAGE_TINT;
+        }
+        return dirty;
+    }
+
+    /**
+     * Upper bound of dispersion taps per pixel. In auto mode the bound follows the largest
+     * possible tap spread, which is reached in the corners at full refraction offset,
+     * and the shader lowers it further per pixel. Never above {@link #maxDispersionQuality}
+     */
+    public int dispersionTaps() {
+        return Math.min(maxDispersionQuality, requestedTaps());
+    }
+
+    private int requestedTaps() {
+        if (dispersionQuality != DISPERSION_QUALITY_AUTO) return dispersionQuality;
+        float maxSpread = Math.abs(refractionOffset * dispersion);
+        if (maxSpread < 0.5f) return DISPERSION_QUALITY_LOW;
+        if (maxSpread < 2f) return DISPERSION_QUALITY_MEDIUM;
+        return DISPERSION_QUALITY_HIGH;
+    }
+
+    @NonNull
+    public Builder buildUpon() {
+        return new Builder(this);
+    }
+
+    public static final class Builder {
+        private GlassParams base;
+        int width, height;
+        float cornerRadius, eccentricFactor = 1.0f, refractionHeight, refractionOffset;
+        float contrast, whitePoint, chromaMultiplier = 1f;
+        float blurRadius, dispersion, depthEffect = 0.3f;
+        float tintAlpha, tintColorRed, tintColorGreen, tintColorBlue;
+        int dispersionQuality = DISPERSION_QUALITY_AUTO, maxDispersionQuality = DISPERSION_QUALITY_HIGH;
+        boolean fusedShader, splitRim, blurDownsample, displacementMap;
+
+        public Builder() {
+            base = null;
+        }
+
+        Builder(GlassParams p) {
+            set(p);
+        }
+
+        /**
+         * Start over from the values of the snapshot, so one builder can be reused for every
+         * edit. Like {@link GlassParams#buildUpon()}, {@link #build()} returns the snapshot
+         * itself when nothing changed
+         */
+        @NonNull
+        public Builder set(@NonNull GlassParams p) {
+            base = p;
+            width = p.width;
+            height = p.height;
+            cornerRadius = p.cornerRadius;
+            eccentricFactor = p.eccentricFactor;
+            refractionHeight = p.refractionHeight;
+            refractionOffset = p.refractionOffset;
+            contrast = p.contrast;
+            whitePoint = p.whitePoint;
+            chromaMultiplier = p.chromaMultiplier;
+            blurRadius = p.blurRadius;
+            dispersion = p.dispersion;
+            depthEffect = p.depthEffect;
+            tintAlpha = p.tintAlpha;
+            tintColorRed = p.tintColorRed;
+            tintColorGreen = p.tintColorGreen;
+            tintColorBlue = p.tintColorBlue;
+            dispersionQuality = p.dispersionQuality;
+            maxDispersionQuality = p.maxDispersionQuality;
+            fusedShader = p.fusedShader;
+            splitRim = p.splitRim;
+            blurDownsample = p.blurDownsample;
+            displacementMap = p.displacementMap;
+            return this;
+        }
+
+        public Builder size(int w, int h) {
+            width = w;
+            height = h;
+            return this;
+        }
+
+        public Builder cornerRadius(float v) {
+            cornerRadius = v;
+            return this;
+        }
+
+        public Builder eccentricFactor(float v) {
+            eccentricFactor = v;
+            return this;
+        }
+
+        public Builder refractionHeight(float v) {
+            refractionHeight = v;
+            return this;
+        }
+
+        public Builder refractionOffset(float v) {
+            refractionOffset = v;
+            return this;
+        }
+
+        public Builder contrast(float v) {
+            contrast = v;
+            return this;
+        }
+
+        public Builder whitePoint(float v) {
+            whitePoint = v;
+            return this;
+        }
+
+        public Builder chromaMultiplier(float v) {
+            chromaMultiplier = v;
+            return this;
+        }
+
+        public Builder blurRadius(float v) {
+            blurRadius = v;
+            return this;
+        }
+
+        public Builder dispersion(float v) {
+            dispersion = v;
+            return this;
+        }
+
+        public Builder depthEffect(float v) {
+            depthEffect = v;
+            return this;
+        }
+
+        public Builder tintAlpha(float v) {
+            tintAlpha = v;
+            return this;
+        }
+
+        public Builder tintColor(float red, float green, float blue) {
+            tintColorRed = red;
+            tintColorGreen = green;
+            tintColorBlue = blue;
+            return this;
+        }
+
+        /**
+         * @param v number of dispersion taps, one of {@code DISPERSION_QUALITY_*}
+         */
+        public Builder dispersionQuality(int v) {
+            dispersionQuality = v;
+            return this;
+        }
+
+        /**
+         * Ceiling of the dispersion taps, also in auto mode, which stays adaptive below it
+         *
+         * @param v one of {@code DISPERSION_QUALITY_*} other than auto
+         */
+        public Builder maxDispersionQuality(int v) {
+            maxDispersionQuality = Math.max(DISPERSION_QUALITY_LOW, v);
+            return this;
+        }
+
+        /**
+         * Render refraction, material, dispersion and tint in one shader pass after the blur
+         * instead of the multi-stage effect chain. The single pass reuses one refraction for all
+         * dispersion samples of a pixel, so where the colors split widely it differs slightly
+         * from the chain
+         */
+        public Builder fusedShader(boolean v) {
+            fusedShader = v;
+            return this;
+        }
+
+        /**
+         * Render the rim band and the interior of the glass separately, so only the rim
+         * runs refraction and dispersion
+         */
+        public Builder splitRim(boolean v) {
+            splitRim = v;
+            return this;
+        }
+
+        /**
+         * Blur the backdrop at 1/2, 1/4 or 1/8 resolution depending on the blur radius
+         */
+        public Builder blurDownsample(boolean v) {
+            blurDownsample = v;
+            return this;
+        }
+
+        /**
+         * Look the refraction up in a displacement map computed once per shape instead of
+         * evaluating it per pixel. Only used by the fused shader; best for glass whose size
+         * and shape stay fixed, every new shape computes a new map on a background thread and
+         * renders with the per pixel evaluation until it is ready
+         */
+        public Builder displacementMap(boolean v) {
+            displacementMap = v;
+            return this;
+        }
+
+        public Builder noFilter() {
+            contrast(0f);
+            whitePoint(0f);
+            chromaMultiplier(1f);
+            blurRadius(0f);
+            refractionHeight(0f);
+            refractionOffset(0f);
+
+            return this;
+        }
+
+        /**
+         * Returns the snapshot this builder was derived from when nothing changed,
+         * so an unchanged edit keeps its version and does not trigger a rebuild.
+         */
+        @NonNull
+        public GlassParams build() {
+            if (base != null && sameAs(base)) return base;
+            return new GlassParams(this);
+        }
+
+        private boolean sameAs(GlassParams p) {
+            return width == p.width
+                    && height == p.height
+                    && cornerRadius == p.cornerRadius
+                    && eccentricFactor == p.eccentricFactor
+                    && refractionHeight == p.refractionHeight
+                    && refractionOffset == p.refractionOffset
+                    && contrast == p.contrast
+                    && whitePoint == p.whitePoint
+                    && chromaMultiplier == p.chromaMultiplier
+                    && blurRadius == p.blurRadius
+                    && dispersion == p.dispersion
+                    && depthEffect == p.depthEffect
+                    && tintAlpha == p.tintAlpha
+                    && tintColorRed == p.tintColorRed
+                    && tintColorGreen == p.tintColorGreen
+                    && tintColorBlue == p.tintColorBlue
+                    && dispersionQuality == p.dispersionQuality
+                    && maxDispersionQuality == p.maxDispersionQuality
+                    && fusedShader == p.fusedShader
+                    && splitRim == p.splitRim
+                    && blurDownsample == p.blurDownsample
+                    && displacementMap == p.displacementMap;
+        }
+    }
+}
@@ -22,25 +22,62 @@ package com.qmdeve.liquidglass;
 
 import android.content.Context;
 import android.graphics.Canvas;
+import android.graphics.Color;
 import android.graphics.Outline;
+import android.graphics.Paint;
+import android.graphics.Rect;
 import android.os.Build;
 import android.view.View;
+import android.view.ViewParent;
 import android.view.ViewOutlineProvider;
 import android.view.ViewTreeObserver;
 import android.widget.FrameLayout;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.ViewTreeLifecycleOwner;
 
+import com.qmdeve.liquidglass.impl.BlurEffectCache;
 import com.qmdeve.liquidglass.impl.Impl;
 import com.qmdeve.liquidglass.impl.LiquidGlassimpl;
+import com.qmdeve.liquidglass.impl.ShaderCache;
+import com.qmdeve.liquidglass.impl.SoftwareLiquidGlassImpl;
 
 import java.lang.ref.WeakReference;
 
 public class LiquidGlass extends FrameLayout {
     private Impl impl;
     private View target;
+    @SuppressWarnings("deprecation")
+    private GlassParams params = Config.toParams();
+    private QualityTier qualityTier = QualityTier.FULL;
+    private static final float STATIC_FALLBACK_ALPHA = 0.6f;
+    private final Paint fallbackPaint = new Paint();
+    private boolean staticFallback;
+    private boolean snapshotMode;
+    private float snapshotScale = 1f;
+    private boolean outputCache;
+    private boolean scrollAware;
     private boolean listenerAdded = false;
 
+    private static final long RATE_WINDOW_NANOS = 1_000_000_000L;
+    private final GlassMetrics listenerMetrics = new GlassMetrics();
+    private GlassMetrics.Listener metricsListener;
+    private long metricsIntervalNanos, lastMetricsNanos;
+    private long rateWindowStart, rateWindowRecords;
+    private float recordsPerSecond;
+
+    private final Rect visibleRect = new Rect();
+    private final LifecycleEventObserver lifecycleObserver = (source, event) -> {
+        if (event == Lifecycle.Event.ON_START) invalidate();
+    };
+    private Lifecycle lifecycle;
+    private boolean aggregatedVisible = true, suspended;
+    private long framesSuspended;
+
     private static class PreDrawListener implements ViewTreeObserver.OnPreDrawListener {
         private final WeakReference<LiquidGlass> liquidGlassRef;
 
@@ -52,18 +89,14 @@ public class LiquidGlass extends FrameLayout {
         public boolean onPreDraw() {
             LiquidGlass liquidGlass = liquidGlassRef.get();
             if (liquidGlass != null && liquidGlass.impl != null) {
-                liquidGlass.impl.onPreDraw();
+                liquidGlass.onSourcePreDraw();
             }
             return true;
         }
     }
 
     private static class RoundRectOutlineProvider extends ViewOutlineProvider {
-        private final float cornerRadius;
-
-        public RoundRectOutlineProvider(float cornerRadius) {
-            this.cornerRadius = cornerRadius;
-        }
+        private float cornerRadius;
 
         @Override
         public void getOutline(View v, Outline o) {
@@ -72,6 +105,7 @@ public class LiquidGlass extends FrameLayout {
     }
 
     private final PreDrawListener preDrawListener = new PreDrawListener(this);
+    private final RoundRectOutlineProvider outlineProvider = new RoundRectOutlineProvider();
 
     public LiquidGlass(Context c) {
         super(c);
@@ -79,19 +113,36 @@ public class LiquidGlass extends FrameLayout {
         init();
     }
 
+    /**
+     * Load and compile the glass shaders ahead of the first frame.
+     * Safe to call from a background thread, e.g. during Application startup
+     *
+     * @param context Context
+     * @return nanoseconds spent, 0 when the device does not render the glass effect
+     */
+    public static long prewarm(@NonNull Context context) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.TIRAMISU) return 0;
+        return ShaderCache.prewarm(context.getApplicationContext().getResources());
+    }
+
     public void init(View target) {
         if (this.target != null) removePreDrawListener();
 
         this.target = target;
 
+        if (impl != null) impl.dispose();
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
-            impl = new LiquidGlassimpl(this, target);
-            addPreDrawListener();
-            requestLayout();
-            invalidate();
+            impl = new LiquidGlassimpl(this, target, params);
         } else {
-            removePreDrawListener();
+            impl = new SoftwareLiquidGlassImpl(this, target, params);
         }
+        impl.setQualityTier(qualityTier);
+        impl.setSnapshotMode(snapshotMode, snapshotScale);
+        impl.setOutputCache(outputCache);
+        impl.setScrollAware(scrollAware);
+        addPreDrawListener();
+        requestLayout();
+        invalidate();
     }
 
     private void init() {
@@ -102,11 +153,313 @@ public class LiquidGlass extends FrameLayout {
 
     @Override
     protected void onDraw(@NonNull Canvas canvas) {
-        if (impl != null) impl.draw(canvas);
+        if (staticFallback) {
+            canvas.drawPaint(fallbackPaint);
+        } else if (impl != null) {
+            impl.draw(canvas);
+        }
     }
 
-    public void updateParameters() {
+    /**
+     * Replace the glass with a translucent fill in the tint color. Nothing is captured or
+     * filtered while the fallback is shown and the offscreen resources are released,
+     * leaving it records the source again
+     *
+     * @param enable boolean
+     */
+    public void setStaticFallback(boolean enable) {
+        if (staticFallback == enable) return;
+        staticFallback = enable;
+        if (impl != null) impl.dispose();
+        updateFallbackPaint();
+        invalidate();
+    }
+
+    public boolean isStaticFallback() {
+        return staticFallback;
+    }
+
+    private void updateFallbackPaint() {
+        float alpha = STATIC_FALLBACK_ALPHA + (1f - STATIC_FALLBACK_ALPHA) * params.tintAlpha;
+        fallbackPaint.setColor(Color.argb(
+                Math.round(alpha * 255),
+                Math.round(params.tintColorRed * 255),
+                Math.round(params.tintColorGreen * 255),
+                Math.round(params.tintColorBlue * 255)));
+    }
+
+    /**
+     * Replace the parameter snapshot of this glass. The effects are rebuilt for the changed
+     * stages when the glass is drawn next
+     *
+     * @param params GlassParams
+     */
+    public void setParams(@NonNull GlassParams params) {
+        if (this.params.version == params.version) return;
+        boolean outline = this.params.cornerRadius != params.cornerRadius;
+        this.params = params;
+        if (impl != null) impl.setParams(params);
+        if (staticFallback) updateFallbackPaint();
+        if (outline) updateOutlineProvider();
+        invalidate();
+    }
+
+    @NonNull
+    public GlassParams getParams() {
+        return params;
+    }
+
+    /**
+     * Apply the parts of a quality tier that are not part of the parameters: how often the
+     * source is recorded and the resolution of the CPU backend
+     *
+     * @param tier QualityTier
+     */
+    public void setQualityTier(@NonNull QualityTier tier) {
+        if (qualityTier == tier) return;
+        qualityTier = tier;
+        if (impl != null) {
+            impl.setQualityTier(tier);
+            invalidate();
+        }
+    }
+
+    @NonNull
+    public QualityTier getQualityTier() {
+        return qualityTier;
+    }
+
+    /**
+     * Stages rebuilt during the last pre-draw
+     *
+     * @return bitmask of {@code GlassParams.STAGE_*} flags
+     */
+    public int getLastRebuiltStages() {
+        return impl != null ? impl.getLastRebuiltStages() : 0;
+    }
+
+    /**
+     * Total number of times a stage was rebuilt by this glass
+     *
+     * @param stage one of {@code GlassParams.STAGE_*}
+     * @return long
+     */
+    public long getStageRebuildCount(int stage) {
+        return impl != null ? impl.getStageRebuildCount(stage) : 0;
+    }
+
+    /**
+     * Sample the source from a GPU bitmap rendered once, instead of replaying its drawing every
+     * frame. The snapshot is taken again whenever the source invalidates or
+     * {@link #invalidateBackdrop()} is called, at most ten times per second, so it suits sources
+     * that rarely change. The glass keeps sampling the previous snapshot until the new one is
+     * rendered. The snapshot covers the recorded area around the glass and is shared by all glass
+     * on the same source, at the largest scale any of them asked for. In scroll-aware mode a
+     * scroll moves the snapshot instead of taking a new one. Only used by the GPU backend, the
+     * CPU backend always works on a bitmap of the source
+     *
+     * @param enable boolean
+     * @param scale  resolution of the snapshot relative to the source, up to 1
+     */
+    public void setSnapshotMode(boolean enable, float scale) {
+        snapshotMode = enable;
+        snapshotScale = scale;
+        if (impl != null) {
+            impl.setSnapshotMode(enable, scale);
+            invalidate();
+        }
+    }
+
+    public boolean isSnapshotMode() {
+        return snapshotMode;
+    }
+
+    /**
+     * Freeze the finished glass into a bitmap while the backdrop, the parameters and the size
+     * stay the same, so redraws caused by anything else do not run the effects again.
+     * Costs a bitmap the size of the glass and an extra render whenever the inputs settle, so
+     * it only pays off when the glass redraws often without changing.
+     * Only used by the GPU backend, the CPU backend always draws a finished bitmap
+     *
+     * @param enable boolean, false by default
+     */
+    public void setOutputCache(boolean enable) {
+        outputCache = enable;
+        if (impl != null) impl.setOutputCache(enable);
+    }
+
+    public boolean isOutputCache() {
+        return outputCache;
+    }
+
+    /**
+     * Follow scrolling of the source without recording it again, for glass over a ScrollView,
+     * NestedScrollView or RecyclerView bound as the source. The content of a ScrollView is
+     * recorded one viewport beyond the glass in every direction, a RecyclerView up to the edge
+     * of its viewport. The source is recorded again when the glass reaches the edge of that band
+     * or its children change.
+     * Drawing of the source itself, such as item decorations, is refreshed with those recordings.
+     * Only used by the GPU backend
+     *
+     * @param enable boolean
+     */
+    public void setScrollAwareCapture(boolean enable) {
+        scrollAware = enable;
+        if (impl != null) impl.setScrollAware(enable);
+    }
+
+    public boolean isScrollAwareCapture() {
+        return scrollAware;
+    }
+
+    /**
+     * Force the source to be recorded again on the next frame, for content changes
+     * that do not invalidate the source view itself. Also refreshes the snapshot
+     */
+    public void invalidateBackdrop() {
+        if (impl != null) {
+            impl.invalidateBackdrop();
+            invalidate();
+        }
+    }
+
+    /**
+     * Number of frames this glass recorded the source. Glass bound to the same source share
+     * one recording, only the first of them to draw in a frame records it
+     *
+     * @return long
+     */
+    public long getRecordsPerformed() {
+        return impl != null ? impl.getRecordsPerformed() : 0;
+    }
+
+    /**
+     * Number of frames this glass reused the current recording of the source
+     *
+     * @return long
+     */
+    public long getRecordsSkipped() {
+        return impl != null ? impl.getRecordsSkipped() : 0;
+    }
+
+    /**
+     * Copy the current metrics of this glass, allocation free so it can be polled every frame
+     *
+     * @param out GlassMetrics to fill
+     * @return out
+     */
+    @NonNull
+    public GlassMetrics getMetrics(@NonNull GlassMetrics out) {
         if (impl != null) {
+            impl.fillMetrics(out);
+        } else {
+            out.reset();
+        }
+        out.timestampNanos = System.nanoTime();
+        out.recordsPerSecond = recordsPerSecond;
+        out.framesSuspended = framesSuspended;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
+            out.blurCacheHits = BlurEffectCache.getHits();
+            out.blurCacheMisses = BlurEffectCache.getMisses();
+        }
+        return out;
+    }
+
+    /**
+     * Receive the metrics of this glass periodically, from the pre-draw of a frame once the
+     * interval has passed. Nothing is sampled while no frames are drawn
+     *
+     * @param listener       Listener, null to stop
+     * @param intervalMillis minimum time between two callbacks
+     */
+    public void setMetricsListener(@Nullable GlassMetrics.Listener listener, long intervalMillis) {
+        metricsListener = listener;
+        metricsIntervalNanos = Math.max(0, intervalMillis) * 1_000_000L;
+        lastMetricsNanos = 0;
+    }
+
+    /**
+     * Whether capture and effect work is suspended because the glass can not be seen
+     *
+     * @return boolean
+     */
+    public boolean isSuspended() {
+        return suspended;
+    }
+
+    private void onSourcePreDraw() {
+        if (staticFallback) return;
+        if (updateSuspended()) {
+            framesSuspended++;
+            return;
+        }
+        impl.onPreDraw();
+        onFrameMetrics();
+    }
+
+    /**
+     * Suspend while the glass is hidden, transparent, clipped away, in a background window or
+     * its lifecycle is stopped. The source may have drawn anything in the meantime, so leaving
+     * the suspension forces one catch-up recording
+     *
+     * @return true if suspended
+     */
+    private boolean updateSuspended() {
+        boolean hidden = !isVisibleToUser();
+        if (hidden == suspended) return suspended;
+        suspended = hidden;
+        if (!hidden && impl != null) {
+            impl.invalidateBackdrop();
+            invalidate();
+        }
+        return suspended;
+    }
+
+    private boolean isVisibleToUser() {
+        if (!aggregatedVisible || !isAttachedToWindow()) return false;
+        if (lifecycle != null && !lifecycle.getCurrentState().isAtLeast(Lifecycle.State.STARTED)) {
+            return false;
+        }
+        View v = this;
+        while (true) {
+            if (v.getAlpha() <= 0f) return false;
+            ViewParent parent = v.getParent();
+            if (!(parent instanceof View)) break;
+            v = (View) parent;
+        }
+        return getGlobalVisibleRect(visibleRect);
+    }
+
+    @Override
+    public void onVisibilityAggregated(boolean isVisible) {
+        super.onVisibilityAggregated(isVisible);
+        aggregatedVisible = isVisible;
+        if (isVisible) invalidate();
+    }
+
+    private void onFrameMetrics() {
+        long now = System.nanoTime();
+        long records = impl.getRecordsPerformed();
+        if (rateWindowStart == 0 || records < rateWindowRecords) {
+            rateWindowStart = now;
+            rateWindowRecords = records;
+        } else if (now - rateWindowStart >= RATE_WINDOW_NANOS) {
+            recordsPerSecond = (records - rateWindowRecords) * 1e9f / (now - rateWindowStart);
+            rateWindowStart = now;
+            rateWindowRecords = records;
+        }
+
+        if (metricsListener != null && (lastMetricsNanos == 0 || now - lastMetricsNanos >= metricsIntervalNanos)) {
+            lastMetricsNanos = now;
+            metricsListener.onMetrics(getMetrics(listenerMetrics));
+        }
+    }
+
+    public void updateParameters() {
+        if (staticFallback) {
+            updateFallbackPaint();
+            invalidate();
+        } else if (impl != null && !updateSuspended()) {
             impl.onPreDraw();
             invalidate();
         }
@@ -114,9 +467,12 @@ public class LiquidGlass extends FrameLayout {
     }
 
     private void updateOutlineProvider() {
-        if (Config.CORNER_RADIUS_PX > 0) {
-            setOutlineProvider(new RoundRectOutlineProvider(Config.CORNER_RADIUS_PX));
-            setClipToOutline(true);
+        if (params.cornerRadius > 0) {
+            outlineProvider.cornerRadius = params.cornerRadius;
+            if (getOutlineProvider() != outlineProvider) {
+                setOutlineProvider(outlineProvider);
+                setClipToOutline(true);
+            }
             invalidateOutline();
         } else {
             setOutlineProvider(null);
@@ -134,11 +490,20 @@ public class LiquidGlass extends FrameLayout {
     protected void onAttachedToWindow() {
         super.onAttachedToWindow();
         addPreDrawListener();
+        LifecycleOwner owner = ViewTreeLifecycleOwner.get(this);
+        if (owner != null) {
+            lifecycle = owner.getLifecycle();
+            lifecycle.addObserver(lifecycleObserver);
+        }
     }
 
     @Override
     protected void onDetachedFromWindow() {
         removePreDrawListener();
+        if (lifecycle != null) {
+            lifecycle.removeObserver(lifecycleObserver);
+            lifecycle = null;
+        }
         if (impl != null) impl.dispose();
         super.onDetachedFromWindow();
     }
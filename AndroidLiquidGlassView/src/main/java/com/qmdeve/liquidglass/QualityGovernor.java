@@ -0,0 +1,208 @@
+/**
+ * Copyright 2025 QmDeve
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author QmDeve
+ * @github https://github.com/QmDeve
+ * @since 2025-11-04
+ */
+
+
+package com.qmdeve.liquidglass;
+
+import android.app.Activity;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Display;
+import android.view.FrameMetrics;
+import android.view.View;
+import android.view.Window;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.qmdeve.liquidglass.util.Utils;
+
+/**
+ * Walks a ladder of {@link QualityTier}s based on real frame durations.
+ * <p>
+ * Frames are judged in windows: a window with too many frames over their deadline steps one
+ * tier down. Stepping back up takes a long run of frames well under the deadline, and the run
+ * gets longer every time a raised tier has to be left again soon after, so the governor does
+ * not oscillate between two tiers. Frame durations come from the {@link FrameMetrics} of the
+ * host window, or from {@link #onFrame(long, long)} when the host has no Activity window.
+ * Only used from the main thread.
+ */
+public final class QualityGovernor {
+
+    /**
+     * Called on the main thread when the governor changes tier
+     */
+    public interface Listener {
+        void onQualityChanged(int tierIndex, @NonNull QualityTier tier);
+    }
+
+    private static final int WINDOW_FRAMES = 30;
+    private static final int MISSES_TO_LOWER = 4;
+    private static final int FRAMES_TO_RAISE = 120;
+    private static final int MAX_BACKOFF = 3;
+    private static final float HEADROOM = 0.6f;
+
+    private QualityTier[] tiers = QualityTier.defaultLadder();
+    private int tier;
+    private int windowFrames, windowMisses, headroomFrames, framesSinceRaise = Integer.MAX_VALUE;
+    private int backoff;
+    private Listener listener;
+
+    private View host;
+    private Window window;
+    private final Window.OnFrameMetricsAvailableListener frameMetricsListener =
+            (w, metrics, dropCount) -> onFrameMetrics(metrics);
+
+    /**
+     * Replace the ladder, ordered from full quality down. Starts over at the first tier
+     *
+     * @param tiers QualityTier, at least one
+     */
+    public void setTiers(@NonNull QualityTier... tiers) {
+        if (tiers.length == 0) throw new IllegalArgumentException("At least one tier is required");
+        this.tiers = tiers.clone();
+        reset();
+        dispatch();
+    }
+
+    @NonNull
+    public QualityTier[] getTiers() {
+        return tiers.clone();
+    }
+
+    public int getTierCount() {
+        return tiers.length;
+    }
+
+    @NonNull
+    public QualityTier getTier(int index) {
+        return tiers[Math.max(0, Math.min(index, tiers.length - 1))];
+    }
+
+    public int getTierIndex() {
+        return tier;
+    }
+
+    @NonNull
+    public QualityTier getTier() {
+        return tiers[tier];
+    }
+
+    public void setListener(@Nullable Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Go back to the first tier and forget the frame history
+     */
+    public void reset() {
+        tier = 0;
+        backoff = 0;
+        framesSinceRaise = Integer.MAX_VALUE;
+        windowFrames = windowMisses = headroomFrames = 0;
+    }
+
+    /**
+     * Report one frame
+     *
+     * @param durationNanos time the frame took
+     * @param deadlineNanos time the frame had
+     */
+    public void onFrame(long durationNanos, long deadlineNanos) {
+        if (deadlineNanos <= 0) return;
+        if (framesSinceRaise < Integer.MAX_VALUE) framesSinceRaise++;
+
+        if (durationNanos > deadlineNanos) {
+            windowMisses++;
+            headroomFrames = 0;
+        } else if (durationNanos < deadlineNanos * HEADROOM) {
+            headroomFrames++;
+        } else {
+            headroomFrames = 0;
+        }
+
+        if (++windowFrames >= WINDOW_FRAMES) {
+            boolean lower = windowMisses >= MISSES_TO_LOWER && tier < tiers.length - 1;
+            windowFrames = windowMisses = 0;
+            if (lower) {
+                // Leaving a tier that was just entered means the raise was premature
+                if (framesSinceRaise < 2 * WINDOW_FRAMES) backoff = Math.min(MAX_BACKOFF, backoff + 1);
+                changeTier(tier + 1);
+                return;
+            }
+        }
+
+        if (tier > 0 && headroomFrames >= FRAMES_TO_RAISE << backoff) {
+            framesSinceRaise = 0;
+            changeTier(tier - 1);
+        } else if (framesSinceRaise >= 4 * (FRAMES_TO_RAISE << MAX_BACKOFF)) {
+            backoff = 0;
+        }
+    }
+
+    /**
+     * Start following the frames of the window the view is attached to
+     *
+     * @param view View, attached to a window
+     */
+    public void attach(@NonNull View view) {
+        detach();
+        host = view;
+        Activity activity = Utils.findActivity(view.getContext());
+        window = activity != null ? activity.getWindow() : null;
+        if (window != null) {
+            window.addOnFrameMetricsAvailableListener(frameMetricsListener, new Handler(Looper.getMainLooper()));
+        }
+    }
+
+    public void detach() {
+        if (window != null) {
+            window.removeOnFrameMetricsAvailableListener(frameMetricsListener);
+            window = null;
+        }
+        host = null;
+    }
+
+    private void onFrameMetrics(FrameMetrics metrics) {
+        // Frames drawn while the glass is hidden say nothing about its cost
+        if (host == null || !host.isShown()) return;
+        long deadline = 0;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
+            deadline = metrics.getMetric(FrameMetrics.DEADLINE);
+        }
+        if (deadline <= 0) {
+            Display display = host.getDisplay();
+            float rate = display != null ? display.getRefreshRate() : 60f;
+            deadline = (long) (1_000_000_000L / Math.max(1f, rate));
+        }
+        onFrame(metrics.getMetric(FrameMetrics.TOTAL_DURATION), deadline);
+    }
+
+    private void changeTier(int index) {
+        tier = index;
+        windowFrames = windowMisses = headroomFrames = 0;
+        dispatch();
+    }
+
+    private void dispatch() {
+        if (listener != null) listener.onQualityChanged(tier, tiers[tier]);
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ * Copyright 2025 QmDeve
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author QmDeve
+ * @github https://github.com/QmDeve
+ * @since 2025-11-04
+ */
+
+
+package com.qmdeve.liquidglass;
+
+import androidx.annotation.NonNull;
+
+/**
+ * One step of the quality ladder walked by {@link QualityGovernor}.
+ * <p>
+ * A tier only lowers what the app configured: it can force blur downsampling and cap the
+ * dispersion taps, it never raises them.
+ */
+public final class QualityTier {
+
+    public static final QualityTier FULL = new Builder().build();
+
+    public final boolean blurDownsample;
+    public final int maxDispersionQuality;
+    public final int refreshInterval;
+    public final float renderScale;
+
+    private QualityTier(Builder b) {
+        blurDownsample = b.blurDownsample;
+        maxDispersionQuality = b.maxDispersionQuality;
+        refreshInterval = b.refreshInterval;
+        renderScale = b.renderScale;
+    }
+
+    /**
+     * Ladder used by {@link QualityGovernor} when the app does not configure one,
+     * ordered from full quality down
+     *
+     * @return QualityTier[]
+     */
+    @NonNull
+    public static QualityTier[] defaultLadder() {
+        return new QualityTier[]{
+                FULL,
+                new Builder().blurDownsample(true).build(),
+                new Builder().blurDownsample(true)
+                        .maxDispersionQuality(GlassParams.DISPERSION_QUALITY_MEDIUM)
+                        .renderScale(0.25f).build(),
+                new Builder().blurDownsample(true)
+                        .maxDispersionQuality(GlassParams.DISPERSION_QUALITY_LOW)
+                        .refreshInterval(2)
+                        .renderScale(0.25f).build(),
+                new Builder().blurDownsample(true)
+                        .maxDispersionQuality(GlassParams.DISPERSION_QUALITY_LOW)
+                        .refreshInterval(3)
+                        .renderScale(0.125f).build()
+        };
+    }
+
+    /**
+     * Dispersion quality to render with when the app configured {@code quality}. Auto stays
+     * auto so the taps keep adapting per pixel, its ceiling is set through
+     * {@link GlassParams.Builder#maxDispersionQuality(int)}
+     *
+     * @param quality one of {@code GlassParams.DISPERSION_QUALITY_*}
+     * @return int
+     */
+    public int capDispersionQuality(int quality) {
+        if (quality == GlassParams.DISPERSION_QUALITY_AUTO) return quality;
+        return Math.min(quality, maxDispersionQuality);
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "QualityTier{blurDownsample=" + blurDownsample
+                + ", maxDispersionQuality=" + maxDispersionQuality
+                + ", refreshInterval=" + refreshInterval
+                + ", renderScale=" + renderScale + "}";
+    }
+
+    public static final class Builder {
+        boolean blurDownsample;
+        int maxDispersionQuality = GlassParams.DISPERSION_QUALITY_HIGH;
+        int refreshInterval = 1;
+        float renderScale = 0.5f;
+
+        /**
+         * Blur the backdrop at reduced resolution regardless of the glass setting
+         */
+        public Builder blurDownsample(boolean v) {
+            blurDownsample = v;
+            return this;
+        }
+
+        /**
+         * @param v upper bound of dispersion taps, one of {@code GlassParams.DISPERSION_QUALITY_*}
+         */
+        public Builder maxDispersionQuality(int v) {
+            maxDispersionQuality = Math.max(GlassParams.DISPERSION_QUALITY_LOW, v);
+            return this;
+        }
+
+        /**
+         * Record the source at most every {@code frames} frames, changes in between are
+         * picked up by the next recording
+         */
+        public Builder refreshInterval(int frames) {
+            refreshInterval = Math.max(1, frames);
+            return this;
+        }
+
+        /**
+         * Largest resolution the CPU backend renders at, relative to the glass size.
+         * Not used by the GPU backend, which renders at full resolution
+         */
+        public Builder renderScale(float v) {
+            renderScale = Math.max(0.01f, Math.min(1f, v));
+            return this;
+        }
+
+        @NonNull
+        public QualityTier build() {
+            return new QualityTier(this);
+        }
+    }
+}
@@ -0,0 +1,464 @@
+/**
+ * Copyright 2025 QmDeve
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author QmDeve
+ * @github https://github.com/QmDeve
+ * @since 2025-11-03
+ */
+
+package com.qmdeve.liquidglass.impl;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RenderNode;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.RequiresApi;
+
+import java.util.ArrayList;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recording of a source view shared by every glass bound to it.
+ * <p>
+ * The source is recorded at most once per frame: recording clears the dirty flag of the source,
+ * so the other glass instances drawing in the same frame find it clean and reuse the recording.
+ * Each glass draws the shared node through its own node, offset to its position.
+ * <p>
+ * Only the part of the source the glass sample is recorded: the union of their sampled areas,
+ * widened by its own size on every side. A glass can move that far before the source has to be
+ * recorded again, until then a move only changes the position of its node.
+ * <p>
+ * In scroll-aware mode a scroll does not record the source again. The recording references the
+ * render nodes of the children, so children moved by a RecyclerView follow on their own, and the
+ * scroll of a ScrollView is applied as a translation of the shared node. For a source with a
+ * single child larger than itself, like a ScrollView or NestedScrollView, the child is recorded
+ * beyond the viewport: one viewport on every side of what the glass sample, so a scroll of up to
+ * a full viewport is only a shift. The recording is only made again when the glass would sample
+ * outside the recorded band, when the children of the source change, or when the source
+ * invalidates without scrolling.
+ * <p>
+ * While any glass on the source is in snapshot mode, the recording is also rendered into one
+ * GPU bitmap shared by all of them, covering only the recorded area. {@link #snapshotNode}
+ * draws that bitmap at the recorded position and follows a scroll with the same translation
+ * as {@link #node}, so a shift does not need a new snapshot. A new one is taken when the
+ * recorded content changes: the source was recorded again, or its children moved on their own.
+ * Only used from the UI thread.
+ */
+@RequiresApi(api = Build.VERSION_CODES.Q)
+final class BackdropCapture {
+
+    static final int CHANGE_NONE = 0;
+    static final int CHANGE_SHIFT = 1;
+    static final int CHANGE_RECORD = 2;
+
+    // A source that keeps changing is snapshotted at most this often
+    private static final long SNAPSHOT_INTERVAL_NANOS = 100_000_000L;
+
+    private static final WeakHashMap<View, BackdropCapture> captures = new WeakHashMap<>();
+
+    final RenderNode node = new RenderNode("AndroidLiquidGlassView");
+    /** Draws the latest snapshot, see {@link #hasSnapshot()} */
+    final RenderNode snapshotNode = new RenderNode("AndroidLiquidGlassView");
+    private final View source;
+    private final ArrayList<Rect> clients = new ArrayList<>();
+    /** Area held by the recording, in source coordinates at the recorded scroll */
+    private final Rect recorded = new Rect();
+    private final Rect wanted = new Rect(), visible = new Rect();
+    private int scrollAwareCount;
+    private int recordedWidth, recordedHeight;
+    private int recordedScrollX, recordedScrollY;
+    private int childCount;
+    private View firstChild, lastChild;
+    private int firstChildLeft, firstChildTop;
+    private boolean invalid = true;
+    /** Scroll of the source the nodes are currently translated to */
+    private int shownScrollX, shownScrollY;
+    /** Incremented whenever what the node draws changes, by a recording or a shift */
+    int generation;
+    /** Incremented whenever the content of the recording changes, a plain scroll does not */
+    private int contentGeneration;
+
+    private final ArrayList<Runnable> snapshotClients = new ArrayList<>();
+    private final ArrayList<Float> snapshotScales = new ArrayList<>();
+    private final Runnable snapshotReady = this::onSnapshotReady;
+    private final Runnable snapshotRetry = this::onSnapshotRetry;
+    private final Paint snapshotPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Rect snapshotRect = new Rect();
+    /** Recorded area and scroll of the snapshot on screen and of the one being rendered */
+    private final Rect snapshotBounds = new Rect(), pendingBounds = new Rect();
+    private int snapshotScrollX, snapshotScrollY, pendingScrollX, pendingScrollY;
+    private BackdropSnapshot snapshot;
+    private float snapshotScale;
+    private int snapshotContent = -1;
+    private long lastSnapshotNanos;
+    private boolean snapshotRetryPosted;
+    /** Snapshots rendered, and the number of them that arrived */
+    long snapshotsTaken;
+    int snapshotVersion;
+
+    private BackdropCapture(View source) {
+        this.source = source;
+    }
+
+    /**
+     * @param sampled area the glass samples, in source coordinates; read on every update,
+     *                so the glass keeps it current
+     */
+    static BackdropCapture acquire(View source, Rect sampled) {
+        BackdropCapture capture = captures.get(source);
+        if (capture == null) {
+            capture = new BackdropCapture(source);
+            captures.put(source, capture);
+        }
+        capture.clients.add(sampled);
+        return capture;
+    }
+
+    void release(Rect sampled) {
+        for (int i = clients.size() - 1; i >= 0; i--) {
+            if (clients.get(i) == sampled) {
+                clients.remove(i);
+                break;
+            }
+        }
+        if (!clients.isEmpty()) return;
+        captures.remove(source);
+        snapshotClients.clear();
+        snapshotScales.clear();
+        releaseSnapshot();
+        node.discardDisplayList();
+        firstChild = lastChild = null;
+    }
+
+    /**
+     * Count a glass that wants scroll-aware capture, the mode is on while any glass wants it
+     */
+    void setScrollAware(boolean enable) {
+        scrollAwareCount = Math.max(0, scrollAwareCount + (enable ? 1 : -1));
+        invalid = true;
+    }
+
+    /**
+     * What {@link #update()} would do this frame
+     *
+     * @return one of {@code CHANGE_*}
+     */
+    int pendingChange() {
+        int w = source.getWidth(), h = source.getHeight();
+        if (invalid || w != recordedWidth || h != recordedHeight) return CHANGE_RECORD;
+        if (scrollAwareCount == 0) {
+            return source.isDirty() || !covers(0, 0, w, h) ? CHANGE_RECORD : CHANGE_NONE;
+        }
+
+        if (childrenChanged()) return CHANGE_RECORD;
+        int dx = source.getScrollX() - recordedScrollX;
+        int dy = source.getScrollY() - recordedScrollY;
+        boolean scrolled = dx != 0 || dy != 0;
+        if (!covers(dx, dy, w, h)) return CHANGE_RECORD;
+        if (source.isDirty()) return scrolled || childrenMoved() ? CHANGE_SHIFT : CHANGE_RECORD;
+        return scrolled ? CHANGE_SHIFT : CHANGE_NONE;
+    }
+
+    /**
+     * Record the source if it changed since the last recording or a glass samples outside of
+     * it, or only move the recording when the source scrolled within the recorded area
+     *
+     * @return true if this call recorded the source
+     */
+    boolean update() {
+        int change = pendingChange();
+        if (change == CHANGE_NONE) return false;
+
+        int sx = source.getScrollX(), sy = source.getScrollY();
+        if (change == CHANGE_SHIFT) {
+            // Without a scroll the shift comes from children the source moved itself
+            if (sx == shownScrollX && sy == shownScrollY) contentGeneration++;
+            shift(sx, sy);
+            generation++;
+            return false;
+        }
+
+        int w = source.getWidth(), h = source.getHeight();
+        View content = scrollContent(w, h);
+        band(w, h, content, sx, sy);
+        node.setPosition(recorded);
+        Canvas rec = node.beginRecording(recorded.width(), recorded.height());
+        rec.translate(-recorded.left, -recorded.top);
+        rec.clipRect(recorded);
+        if (content != null) {
+            drawScrollContent(rec, content, w, h, sx, sy);
+        } else {
+            // draw() leaves the scroll to the parent, which is not drawing here
+            rec.translate(-sx, -sy);
+            source.draw(rec);
+        }
+        node.endRecording();
+
+        recordedWidth = w;
+        recordedHeight = h;
+        recordedScrollX = sx;
+        recordedScrollY = sy;
+        shift(sx, sy);
+        rememberChildren();
+        invalid = false;
+        generation++;
+        contentGeneration++;
+        return true;
+    }
+
+    /**
+     * Translate the recording and the snapshot from the scroll they were taken at to the
+     * current scroll of the source
+     */
+    private void shift(int sx, int sy) {
+        shownScrollX = sx;
+        shownScrollY = sy;
+        node.setTranslationX(recordedScrollX - sx);
+        node.setTranslationY(recordedScrollY - sy);
+        snapshotNode.setTranslationX(snapshotScrollX - sx);
+        snapshotNode.setTranslationY(snapshotScrollY - sy);
+    }
+
+    /**
+     * Add, update or with a scale of 0 remove a glass sampling the snapshot. The snapshot is
+     * rendered at the largest scale any of them asked for
+     *
+     * @param client runs after a new snapshot arrived, and when a throttled snapshot is due,
+     *               the glass then draws again and calls {@link #updateSnapshot()}
+     */
+    void setSnapshot(Runnable client, float scale) {
+        int index = snapshotClients.indexOf(client);
+        if (index >= 0) {
+            snapshotClients.remove(index);
+            snapshotScales.remove(index);
+        }
+        if (scale > 0f) {
+            snapshotClients.add(client);
+            snapshotScales.add(scale);
+        }
+        if (snapshotClients.isEmpty()) {
+            releaseSnapshot();
+            return;
+        }
+        float max = 0f;
+        for (int i = 0; i < snapshotScales.size(); i++) max = Math.max(max, snapshotScales.get(i));
+        if (max != snapshotScale) {
+            snapshotScale = max;
+            snapshotContent = -1;
+        }
+    }
+
+    /**
+     * @return whether {@link #snapshotNode} has a snapshot to draw
+     */
+    boolean hasSnapshot() {
+        return snapshot != null && snapshot.getBitmap() != null;
+    }
+
+    /**
+     * Render the recording into the snapshot if its content changed since the last one. The
+     * previous snapshot stays on screen until the new one arrives, and a source that keeps
+     * changing is snapshotted at most every {@code SNAPSHOT_INTERVAL_NANOS}, the latest state last
+     */
+    void updateSnapshot() {
+        if (snapshotClients.isEmpty() || recorded.isEmpty() || contentGeneration == snapshotContent) return;
+        long now = System.nanoTime();
+        long wait = lastSnapshotNanos + SNAPSHOT_INTERVAL_NANOS - now;
+        if (wait > 0) {
+            if (!snapshotRetryPosted) {
+                snapshotRetryPosted = true;
+                source.postDelayed(snapshotRetry, TimeUnit.NANOSECONDS.toMillis(wait) + 1);
+            }
+            return;
+        }
+        if (snapshot == null) snapshot = new BackdropSnapshot(snapshotReady);
+        // The node is drawn at its position plus the scroll translation
+        float left = recorded.left + recordedScrollX - shownScrollX;
+        float top = recorded.top + recordedScrollY - shownScrollY;
+        // A frame still in flight retries from onSnapshotReady
+        if (!snapshot.capture(node, left, top, recorded.width(), recorded.height(), snapshotScale)) return;
+        lastSnapshotNanos = now;
+        snapshotContent = contentGeneration;
+        pendingBounds.set(recorded);
+        pendingScrollX = recordedScrollX;
+        pendingScrollY = recordedScrollY;
+        snapshotsTaken++;
+    }
+
+    private void onSnapshotReady() {
+        Bitmap bitmap = snapshot != null ? snapshot.getBitmap() : null;
+        if (bitmap == null) return;
+        snapshotBounds.set(pendingBounds);
+        snapshotScrollX = pendingScrollX;
+        snapshotScrollY = pendingScrollY;
+        snapshotNode.setPosition(snapshotBounds);
+        snapshotNode.setTranslationX(snapshotScrollX - shownScrollX);
+        snapshotNode.setTranslationY(snapshotScrollY - shownScrollY);
+        snapshotRect.set(0, 0, snapshotBounds.width(), snapshotBounds.height());
+        Canvas rec = snapshotNode.beginRecording(snapshotRect.width(), snapshotRect.height());
+        rec.drawBitmap(bitmap, null, snapshotRect, snapshotPaint);
+        snapshotNode.endRecording();
+        snapshotVersion++;
+        notifySnapshotClients();
+    }
+
+    private void onSnapshotRetry() {
+        snapshotRetryPosted = false;
+        notifySnapshotClients();
+    }
+
+    private void notifySnapshotClients() {
+        for (int i = snapshotClients.size() - 1; i >= 0; i--) snapshotClients.get(i).run();
+    }
+
+    private void releaseSnapshot() {
+        if (snapshot != null) {
+            snapshot.release();
+            snapshot = null;
+        }
+        if (snapshotRetryPosted) {
+            source.removeCallbacks(snapshotRetry);
+            snapshotRetryPosted = false;
+        }
+        snapshotNode.discardDisplayList();
+        snapshotScale = 0f;
+        snapshotContent = -1;
+    }
+
+    /**
+     * Whether the source changed since the last recording while keeping its size, so the
+     * current recording can still be drawn in place until the next one
+     */
+    boolean isOutdated() {
+        return pendingChange() == CHANGE_RECORD
+                && source.getWidth() == recordedWidth && source.getHeight() == recordedHeight;
+    }
+
+    void invalidate() {
+        invalid = true;
+    }
+
+    /**
+     * Every part of the source a glass samples, moved by the scroll since the recording,
+     * has to lie inside the recorded area
+     */
+    private boolean covers(int dx, int dy, int w, int h) {
+        for (int i = 0; i < clients.size(); i++) {
+            visible.set(clients.get(i));
+            if (visible.isEmpty() || !visible.intersect(0, 0, w, h)) continue;
+            visible.offset(dx, dy);
+            if (!recorded.contains(visible)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Area to record: what the glass sample, widened by its own size on every side and
+     * clamped to the source. The whole source when no glass sampled anything yet.
+     * With scroll content the area is widened by a viewport instead and clamped to the
+     * content, so it reaches past the visible part of the source
+     */
+    private void band(int w, int h, View content, int sx, int sy) {
+        wanted.setEmpty();
+        for (int i = 0; i < clients.size(); i++) {
+            visible.set(clients.get(i));
+            if (visible.isEmpty() || !visible.intersect(0, 0, w, h)) continue;
+            wanted.union(visible);
+        }
+        if (content == null) {
+            if (wanted.isEmpty()) {
+                recorded.set(0, 0, w, h);
+                return;
+            }
+            int mx = wanted.width(), my = wanted.height();
+            recorded.set(Math.max(0, wanted.left - mx), Math.max(0, wanted.top - my),
+                    Math.min(w, wanted.right + mx), Math.min(h, wanted.bottom + my));
+            return;
+        }
+
+        if (wanted.isEmpty()) wanted.set(0, 0, w, h);
+        // The content in source coordinates at the current scroll, plus the viewport itself
+        int left = Math.min(0, content.getLeft() - sx), top = Math.min(0, content.getTop() - sy);
+        int right = Math.max(w, content.getRight() - sx), bottom = Math.max(h, content.getBottom() - sy);
+        recorded.set(Math.max(left, wanted.left - w), Math.max(top, wanted.top - h),
+                Math.min(right, wanted.right + w), Math.min(bottom, wanted.bottom + h));
+    }
+
+    /**
+     * The only child of a scroll container when scroll-aware, null otherwise
+     */
+    private View scrollContent(int w, int h) {
+        if (scrollAwareCount == 0 || !(source instanceof ViewGroup)) return null;
+        ViewGroup group = (ViewGroup) source;
+        if (group.getChildCount() != 1) return null;
+        View child = group.getChildAt(0);
+        return child.getWidth() > w || child.getHeight() > h ? child : null;
+    }
+
+    /**
+     * Draw the scroll content of the source without the clip to its viewport. The background
+     * of the source stays in place while the content scrolls, it is repeated every viewport so
+     * a shifted recording still shows it behind the glass
+     */
+    private void drawScrollContent(Canvas rec, View content, int w, int h, int sx, int sy) {
+        Drawable background = source.getBackground();
+        if (background != null) {
+            for (int y = Math.floorDiv(recorded.top, h) * h; y < recorded.bottom; y += h) {
+                for (int x = Math.floorDiv(recorded.left, w) * w; x < recorded.right; x += w) {
+                    int save = rec.save();
+                    rec.translate(x, y);
+                    background.draw(rec);
+                    rec.restoreToCount(save);
+                }
+            }
+        }
+        int save = rec.save();
+        rec.translate(content.getLeft() - sx, content.getTop() - sy);
+        content.draw(rec);
+        rec.restoreToCount(save);
+    }
+
+    private boolean childrenChanged() {
+        if (!(source instanceof ViewGroup)) return false;
+        ViewGroup group = (ViewGroup) source;
+        int count = group.getChildCount();
+        return count != childCount
+                || (count > 0 && (group.getChildAt(0) != firstChild || group.getChildAt(count - 1) != lastChild));
+    }
+
+    private boolean childrenMoved() {
+        return firstChild != null
+                && (firstChild.getLeft() != firstChildLeft || firstChild.getTop() != firstChildTop);
+    }
+
+    private void rememberChildren() {
+        if (!(source instanceof ViewGroup)) return;
+        ViewGroup group = (ViewGroup) source;
+        childCount = group.getChildCount();
+        firstChild = childCount > 0 ? group.getChildAt(0) : null;
+        lastChild = childCount > 0 ? group.getChildAt(childCount - 1) : null;
+        if (firstChild != null) {
+            firstChildLeft = firstChild.getLeft();
+            firstChildTop = firstChild.getTop();
+        }
+    }
+}
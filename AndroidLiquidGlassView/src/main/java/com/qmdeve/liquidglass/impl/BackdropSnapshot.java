@@ -0,0 +1,165 @@
+/**
+ * Copyright 2025 QmDeve
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author QmDeve
+ * @github https://github.com/QmDeve
+ * @since 2025-11-05
+ */
+
+
+package com.qmdeve.liquidglass.impl;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.ColorSpace;
+import android.graphics.HardwareRenderer;
+import android.graphics.PixelFormat;
+import android.graphics.RenderNode;
+import android.hardware.HardwareBuffer;
+import android.media.Image;
+import android.media.ImageReader;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+
+/**
+ * Renders a recording into a GPU-backed bitmap, so drawing it afterwards samples a texture
+ * instead of replaying the recorded draw operations.
+ * <p>
+ * The UI thread never waits for the GPU: {@link #capture} queues a frame, the bitmap is replaced
+ * once the frame arrives and {@code onReady} runs. At most one frame is in flight. The image
+ * behind the current bitmap stays acquired until its replacement is installed, so the renderer
+ * cannot draw into a buffer that is still sampled. Only used from the UI thread
+ */
+@RequiresApi(api = Build.VERSION_CODES.Q)
+final class BackdropSnapshot {
+
+    // The current image, the arriving one and a spare for acquireLatestImage
+    private static final int MAX_IMAGES = 3;
+    private static final int NOT_DRAWN = HardwareRenderer.SYNC_LOST_SURFACE_REWARD_IF_FOUND
+            | HardwareRenderer.SYNC_CONTEXT_IS_STOPPED | HardwareRenderer.SYNC_FRAME_DROPPED;
+
+    private final RenderNode content = new RenderNode("AndroidLiquidGlassView");
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final ImageReader.OnImageAvailableListener imageListener = this::onImageAvailable;
+    private final Runnable onReady;
+    private HardwareRenderer renderer;
+    private ImageReader reader;
+    private int width, height;
+    private boolean inFlight;
+    private Image image;
+    private Bitmap bitmap;
+
+    /**
+     * @param onReady runs on the UI thread after a new snapshot replaced the bitmap
+     */
+    BackdropSnapshot(Runnable onReady) {
+        this.onReady = onReady;
+    }
+
+    /**
+     * Queue a render of an area of the node into the snapshot
+     *
+     * @param source recording to render
+     * @param left   left edge of the area, in the coordinates the node is drawn in
+     * @param top    top edge of the area
+     * @param w      width of the area
+     * @param h      height of the area
+     * @param scale  resolution of the snapshot relative to the recording, up to 1
+     * @return false when nothing was queued because the previous frame has not arrived yet
+     */
+    boolean capture(RenderNode source, float left, float top, int w, int h, float scale) {
+        if (inFlight) return false;
+        int sw = Math.max(1, (int) Math.ceil(w * scale));
+        int sh = Math.max(1, (int) Math.ceil(h * scale));
+        if (reader == null || sw != width || sh != height) {
+            release();
+            reader = ImageReader.newInstance(sw, sh, PixelFormat.RGBA_8888, MAX_IMAGES,
+                    HardwareBuffer.USAGE_GPU_SAMPLED_IMAGE | HardwareBuffer.USAGE_GPU_COLOR_OUTPUT);
+            reader.setOnImageAvailableListener(imageListener, handler);
+            renderer = new HardwareRenderer();
+            renderer.setOpaque(false);
+            renderer.setContentRoot(content);
+            renderer.setSurface(reader.getSurface());
+            width = sw;
+            height = sh;
+        }
+
+        content.setPosition(0, 0, sw, sh);
+        Canvas rec = content.beginRecording(sw, sh);
+        rec.scale(sw / (float) w, sh / (float) h);
+        rec.translate(-left, -top);
+        rec.drawRenderNode(source);
+        content.endRecording();
+        int result = renderer.createRenderRequest().syncAndDraw();
+        inFlight = (result & NOT_DRAWN) == 0;
+        return inFlight;
+    }
+
+    /**
+     * @return the latest snapshot, null until the first frame arrived
+     */
+    @Nullable
+    Bitmap getBitmap() {
+        return bitmap;
+    }
+
+    private void onImageAvailable(ImageReader source) {
+        if (source != reader) return;
+        inFlight = false;
+        Image next = reader.acquireLatestImage();
+        if (next == null) return;
+        Bitmap wrapped = null;
+        HardwareBuffer buffer = next.getHardwareBuffer();
+        if (buffer != null) {
+            wrapped = Bitmap.wrapHardwareBuffer(buffer, ColorSpace.get(ColorSpace.Named.SRGB));
+            buffer.close();
+        }
+        if (wrapped == null) {
+            next.close();
+            return;
+        }
+
+        Image previous = image;
+        image = next;
+        bitmap = wrapped;
+        onReady.run();
+        // The owner switched to the new bitmap, the old buffer can go back to the renderer
+        if (previous != null) previous.close();
+    }
+
+    void release() {
+        if (renderer != null) {
+            renderer.destroy();
+            renderer = null;
+        }
+        if (image != null) {
+            image.close();
+            image = null;
+        }
+        if (reader != null) {
+            reader.setOnImageAvailableListener(null, null);
+            reader.close();
+            reader = null;
+        }
+        content.discardDisplayList();
+        bitmap = null;
+        inFlight = false;
+        width = height = 0;
+    }
+}
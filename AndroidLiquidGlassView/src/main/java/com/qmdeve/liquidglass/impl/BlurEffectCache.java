@@ -0,0 +1,99 @@
+/**
+ * Copyright 2025 QmDeve
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author QmDeve
+ * @github https://github.com/QmDeve
+ * @since 2025-11-02
+ */
+
+package com.qmdeve.liquidglass.impl;
+
+import android.graphics.RenderEffect;
+import android.graphics.Shader;
+import android.os.Build;
+
+import androidx.annotation.RequiresApi;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Process-wide LRU cache of blur RenderEffects keyed by quantized sigma.
+ * <p>
+ * RenderEffects are immutable, so one instance is shared by every glass using the same sigma.
+ */
+@RequiresApi(api = Build.VERSION_CODES.S)
+public final class BlurEffectCache {
+
+    private static float quantum = 0.5f;
+    private static int maxSize = 32;
+    private static long hits, misses;
+
+    private static final LinkedHashMap<Integer, RenderEffect> effects =
+            new LinkedHashMap<Integer, RenderEffect>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, RenderEffect> eldest) {
+                    return size() > maxSize;
+                }
+            };
+
+    private BlurEffectCache() {
+    }
+
+    /**
+     * Blur effect for the sigma rounded to the nearest multiple of the quantum
+     *
+     * @param sigma float, larger than 0
+     * @return RenderEffect
+     */
+    public static synchronized RenderEffect obtain(float sigma) {
+        int key = Math.max(1, Math.round(sigma / quantum));
+        RenderEffect effect = effects.get(key);
+        if (effect != null) {
+            hits++;
+            return effect;
+        }
+
+        misses++;
+        float quantized = key * quantum;
+        effect = RenderEffect.createBlurEffect(quantized, quantized, Shader.TileMode.CLAMP);
+        effects.put(key, effect);
+        return effect;
+    }
+
+    /**
+     * Configure the cache, clears the cached effects
+     *
+     * @param sigmaQuantum step sigma is rounded to, larger steps mean more hits and coarser blur changes
+     * @param size         maximum number of cached effects
+     */
+    public static synchronized void configure(float sigmaQuantum, int size) {
+        quantum = Math.max(0.01f, sigmaQuantum);
+        maxSize = Math.max(1, size);
+        effects.clear();
+    }
+
+    public static synchronized long getHits() {
+        return hits;
+    }
+
+    public static synchronized long getMisses() {
+        return misses;
+    }
+
+    public static synchronized void clear() {
+        effects.clear();
+    }
+}
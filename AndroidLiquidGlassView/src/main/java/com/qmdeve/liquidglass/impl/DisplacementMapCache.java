@@ -0,0 +1,193 @@
+/**
+ * Copyright 2025 QmDeve
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author QmDeve
+ * @github https://github.com/QmDeve
+ * @since 2025-11-03
+ */
+
+
+package com.qmdeve.liquidglass.impl;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapShader;
+import android.graphics.Shader;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+
+import com.qmdeve.liquidglass.GlassParams;
+import com.qmdeve.liquidglass.soft.DisplacementMap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process-wide LRU cache of displacement maps keyed by the shape they were computed for.
+ * Maps are computed on a background thread, callers render without one until it is ready.
+ * Evicted maps are not recycled, effects created from them may still be drawn
+ */
+@RequiresApi(api = Build.VERSION_CODES.TIRAMISU)
+public final class DisplacementMapCache {
+
+    private static final int MAX_SIZE = 4;
+    private static long hits, misses;
+
+    private static final LinkedHashMap<Key, BitmapShader> maps =
+            new LinkedHashMap<Key, BitmapShader>(8, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, BitmapShader> eldest) {
+                    return size() > MAX_SIZE;
+                }
+            };
+    private static final HashMap<Key, ArrayList<Runnable>> pending = new HashMap<>();
+    private static final Key lookup = new Key();
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private static ThreadPoolExecutor executor;
+
+    private DisplacementMapCache() {
+    }
+
+    /**
+     * Map for the shape of the params, sampled without filtering so the packed values stay intact.
+     * Bind it with {@code RuntimeShader.setInputBuffer} so it is not color managed
+     *
+     * @param onReady run on the main thread once the map is ready, if it was not yet
+     * @return the map, or null while it is being computed
+     */
+    @Nullable
+    public static synchronized BitmapShader obtain(GlassParams p, Runnable onReady) {
+        lookup.set(p);
+        BitmapShader shader = maps.get(lookup);
+        if (shader != null) {
+            hits++;
+            return shader;
+        }
+
+        ArrayList<Runnable> callbacks = pending.get(lookup);
+        if (callbacks != null) {
+            if (!callbacks.contains(onReady)) callbacks.add(onReady);
+            return null;
+        }
+
+        misses++;
+        Key key = new Key();
+        key.set(p);
+        callbacks = new ArrayList<>(2);
+        callbacks.add(onReady);
+        pending.put(key, callbacks);
+        executor().execute(() -> {
+            BitmapShader map = create(key);
+            ArrayList<Runnable> ready;
+            synchronized (DisplacementMapCache.class) {
+                maps.put(key, map);
+                ready = pending.remove(key);
+            }
+            if (ready != null) {
+                for (Runnable callback : ready) mainHandler.post(callback);
+            }
+        });
+        return null;
+    }
+
+    private static BitmapShader create(Key key) {
+        int w = Math.max(1, key.width), h = Math.max(1, key.height);
+        int qw = DisplacementMap.quadrantWidth(w), qh = DisplacementMap.quadrantHeight(h);
+        int[] pixels = new int[qw * qh * 2];
+        DisplacementMap.compute(w, h, key.cornerRadius, key.refractionHeight, key.refractionOffset,
+                key.eccentricFactor, key.depthEffect, pixels);
+        Bitmap bitmap = Bitmap.createBitmap(qw, qh * 2, Bitmap.Config.ARGB_8888);
+        bitmap.setPixels(pixels, 0, qw, 0, 0, qw, qh * 2);
+        BitmapShader shader = new BitmapShader(bitmap, Shader.TileMode.CLAMP, Shader.TileMode.CLAMP);
+        shader.setFilterMode(BitmapShader.FILTER_MODE_NEAREST);
+        return shader;
+    }
+
+    private static ThreadPoolExecutor executor() {
+        if (executor == null) {
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(1, 1, 2, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), r -> {
+                Thread thread = new Thread(r, "LiquidGlass-map");
+                thread.setDaemon(true);
+                return thread;
+            });
+            pool.allowCoreThreadTimeOut(true);
+            executor = pool;
+        }
+        return executor;
+    }
+
+    public static synchronized long getHits() {
+        return hits;
+    }
+
+    public static synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Drop the cached maps, maps still being computed are kept when they finish
+     */
+    public static synchronized void clear() {
+        maps.clear();
+    }
+
+    private static final class Key {
+        int width, height;
+        float cornerRadius, refractionHeight, refractionOffset, eccentricFactor, depthEffect;
+
+        void set(GlassParams p) {
+            width = p.width;
+            height = p.height;
+            cornerRadius = p.cornerRadius;
+            refractionHeight = p.refractionHeight;
+            refractionOffset = p.refractionOffset;
+            eccentricFactor = p.eccentricFactor;
+            depthEffect = p.depthEffect;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return width == k.width && height == k.height
+                    && cornerRadius == k.cornerRadius
+                    && refractionHeight == k.refractionHeight
+                    && refractionOffset == k.refractionOffset
+                    && eccentricFactor == k.eccentricFactor
+                    && depthEffect == k.depthEffect;
+        }
+
+        @Override
+        public int hashCode() {
+            int h = width;
+            h = 31 * h + height;
+            h = 31 * h + Float.floatToIntBits(cornerRadius);
+            h = 31 * h + Float.floatToIntBits(refractionHeight);
+            h = 31 * h + Float.floatToIntBits(refractionOffset);
+            h = 31 * h + Float.floatToIntBits(eccentricFactor);
+            h = 31 * h + Float.floatToIntBits(depthEffect);
+            return h;
+        }
+    }
+}
@@ -22,9 +22,24 @@ package com.qmdeve.liquidglass.impl;
 
 import android.graphics.Canvas;
 
+import com.qmdeve.liquidglass.GlassMetrics;
+import com.qmdeve.liquidglass.GlassParams;
+import com.qmdeve.liquidglass.QualityTier;
+
 public interface Impl {
+    void setParams(GlassParams params);
     void onSizeChanged(int w, int h);
     void onPreDraw();
     void draw(Canvas c);
     default void dispose() {}
+    default int getLastRebuiltStages() { return 0; }
+    default long getStageRebuildCount(int stage) { return 0; }
+    default void invalidateBackdrop() {}
+    default long getRecordsPerformed() { return 0; }
+    default long getRecordsSkipped() { return 0; }
+    default void fillMetrics(GlassMetrics out) {}
+    default void setQualityTier(QualityTier tier) {}
+    default void setSnapshotMode(boolean enable, float scale) {}
+    default void setOutputCache(boolean enable) {}
+    default void setScrollAware(boolean enable) {}
 }
\ No newline at end of file
@@ -21,151 +21,372 @@
 package com.qmdeve.liquidglass.impl;
 
 import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapShader;
 import android.graphics.Canvas;
+import android.graphics.Rect;
 import android.graphics.RenderEffect;
 import android.graphics.RenderNode;
 import android.graphics.RuntimeShader;
-import android.graphics.Shader;
 import android.os.Build;
 import android.view.View;
 
 import androidx.annotation.RequiresApi;
 
-import com.qmdeve.liquidglass.Config;
+import com.qmdeve.liquidglass.GlassMetrics;
+import com.qmdeve.liquidglass.GlassParams;
+import com.qmdeve.liquidglass.QualityTier;
 import com.qmdeve.liquidglass.R;
+import com.qmdeve.liquidglass.soft.DisplacementMap;
 
-import org.intellij.lang.annotations.Language;
-
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.util.Arrays;
 
 @RequiresApi(api = Build.VERSION_CODES.TIRAMISU)
 public final class LiquidGlassimpl implements Impl {
 
+    private static final int MAX_PANES = 5;
+
     private final View host, target;
-    private final RenderNode node;
-    private RenderEffect cachedBlurEffect;
+    private final RenderNode backdrop;
+    private final Pane[] panes = new Pane[MAX_PANES];
+    private int paneCount;
+    private final Rect limit = new Rect();
+    private final RenderNode blurNode;
+    private RenderEffect cachedBlurEffect, paneBlurEffect;
+    private float blurScale = 1f;
+    private int sourceGeneration, blurRecordedGeneration = -1;
     private final int[] tp = new int[2];
     private final int[] hp = new int[2];
+    private int recordedWidth, recordedHeight, recordedX, recordedY;
+    private BackdropCapture capture;
+    private boolean scrollAware;
+    private final Rect sampled = new Rect();
+    private long recordsPerformed, recordsSkipped;
+    private long framesRendered, framesSkipped, lastRecordNanos, totalRecordNanos;
+    private int refreshInterval = 1, framesSinceRecord;
+    private boolean snapshotMode, snapshotShown;
+    private float snapshotScale = 1f;
+    private final Runnable snapshotChanged = this::onSnapshotChanged;
+
+    private static final int OUTPUT_KEY_SIZE = 8;
+    private static final int OUTPUT_STABLE_FRAMES = 2;
+    private boolean outputCache, outputValid, outputPending;
+    private BackdropSnapshot outputSnapshot;
+    private final RenderNode outputNode = new RenderNode("AndroidLiquidGlassView");
+    private Bitmap outputBitmap;
+    private final int[] outputKey = new int[OUTPUT_KEY_SIZE];
+    private final int[] pendingKey = new int[OUTPUT_KEY_SIZE];
+    private final int[] frameKey = new int[OUTPUT_KEY_SIZE];
+    private int stableFrames;
+    private long outputBuilds, outputHits;
+    private final Runnable outputReady = this::onOutputReady;
     private final RuntimeShader refractionShader, materialShader, dispersionShader, tintShader;
 
-    private float lastCornerRadius, lastEccentricFactor, lastRefractionHeight, lastRefractionAmount,
-            lastContrast, lastWhitePoint, lastChromaMultiplier, lastSigma,
-            lastChromaticAberration, lastDepthEffect, lastBlurLevel,
-            lastTintRed, lastTintGreen, lastTintBlue, lastTintAlpha;
+    private GlassParams params, applied;
 
-    private boolean needsUpdate = true;
-    private long lastBlurUpdateTime = 0;
+    private int lastRebuiltStages;
+    private final long[] stageRebuilds = new long[GlassParams.STAGE_COUNT];
+    private final Runnable mapReady = this::onDisplacementMapReady;
 
-    public LiquidGlassimpl(View host, View target) {
+    public LiquidGlassimpl(View host, View target, GlassParams params) {
         this.host = host;
         this.target = target;
-        this.node = new RenderNode("AndroidLiquidGlassView");
-        this.refractionShader = loadAgsl(target.getResources(), R.raw.liquidglass_refraction_effect);
-        this.materialShader = loadAgsl(target.getResources(), R.raw.liquidglass_material_effect);
-        this.dispersionShader = loadAgsl(target.getResources(), R.raw.liquidglass_dispersion_effect);
-        this.tintShader = loadAgsl(target.getResources(), R.raw.liquidglass_tint_effect);
-
-        lastCornerRadius = Float.NaN;
-        lastEccentricFactor = Float.NaN;
-        lastRefractionHeight = Float.NaN;
-        lastRefractionAmount = Float.NaN;
-        lastContrast = Float.NaN;
-        lastWhitePoint = Float.NaN;
-        lastChromaMultiplier = Float.NaN;
-        lastSigma = Float.NaN;
-        lastBlurLevel = Float.NaN;
-        lastChromaticAberration = Float.NaN;
-        lastDepthEffect = Float.NaN;
-        lastTintRed = Float.NaN;
-        lastTintGreen = Float.NaN;
-        lastTintBlue = Float.NaN;
-        lastTintAlpha = Float.NaN;
+        this.params = params;
+        this.backdrop = new RenderNode("AndroidLiquidGlassView");
+        this.blurNode = new RenderNode("AndroidLiquidGlassView");
+        Resources resources = target.getResources();
+        this.refractionShader = ShaderCache.shader(resources, R.raw.liquidglass_refraction_effect);
+        this.materialShader = ShaderCache.shader(resources, R.raw.liquidglass_material_effect);
+        this.dispersionShader = ShaderCache.shader(resources, R.raw.liquidglass_dispersion_effect);
+        this.tintShader = ShaderCache.shader(resources, R.raw.liquidglass_tint_effect);
 
         host.post(this::applyRenderEffect);
     }
 
+    /**
+     * A displacement map finished computing, apply the effects again to pick it up
+     */
+    private void onDisplacementMapReady() {
+        if (applied == null || !applied.displacementMap) return;
+        applied = null;
+        host.invalidate();
+    }
+
+    @Override
+    public void setParams(GlassParams params) {
+        this.params = params;
+    }
+
     @Override
     public void onSizeChanged(int w, int h) {
-        node.setPosition(0, 0, w, h);
-        record();
         applyRenderEffect();
+        record();
     }
 
     @Override
     public void onPreDraw() {
+        lastRebuiltStages = 0;
+        if (applied == null || params.version != applied.version) {
+            applyRenderEffect();
+        }
+
+        long performed = recordsPerformed;
+        long start = System.nanoTime();
         record();
+        lastRecordNanos = System.nanoTime() - start;
+        totalRecordNanos += lastRecordNanos;
+        if (lastRebuiltStages != 0 || recordsPerformed != performed) {
+            framesRendered++;
+        } else {
+            framesSkipped++;
+        }
+        updateOutputCache();
+    }
 
-        float cornerRadius = Config.CORNER_RADIUS_PX;
-        float eccentricFactor = Config.ECCENTRIC_FACTOR;
-        float refractionHeight = Config.REFRACTION_HEIGHT;
-        float refractionAmount = Config.REFRACTION_OFFSET;
-        float contrast = Config.CONTRAST;
-        float whitePoint = Config.WHITE_POINT;
-        float chromaMultiplier = Config.CHROMA_MULTIPLIER;
-        float blurLevel = Config.BLUR_RADIUS;
-        float chromaticAberration = Config.DISPERSION;
-        float depthEffect = Config.DEPTH_EFFECT;
-        float tintRed = Config.TINT_COLOR_RED;
-        float tintGreen = Config.TINT_COLOR_GREEN;
-        float tintBlue = Config.TINT_COLOR_BLUE;
-        float tintAlpha = Config.TINT_ALPHA;
-
-        boolean paramsChanged =
-                lastCornerRadius != cornerRadius ||
-                        lastEccentricFactor != eccentricFactor ||
-                        lastRefractionHeight != refractionHeight ||
-                        lastRefractionAmount != refractionAmount ||
-                        lastContrast != contrast ||
-                        lastWhitePoint != whitePoint ||
-                        lastChromaMultiplier != chromaMultiplier ||
-                        lastBlurLevel != blurLevel ||
-                        lastChromaticAberration != chromaticAberration ||
-                        lastDepthEffect != depthEffect ||
-                        lastTintRed != tintRed ||
-                        lastTintGreen != tintGreen ||
-                        lastTintBlue != tintBlue ||
-                        lastTintAlpha != tintAlpha ||
-                        needsUpdate;
-
-        if (paramsChanged) {
-            lastCornerRadius = cornerRadius;
-            lastEccentricFactor = eccentricFactor;
-            lastRefractionHeight = refractionHeight;
-            lastRefractionAmount = refractionAmount;
-            lastContrast = contrast;
-            lastWhitePoint = whitePoint;
-            lastChromaMultiplier = chromaMultiplier;
-            lastBlurLevel = blurLevel;
-            lastChromaticAberration = chromaticAberration;
-            lastDepthEffect = depthEffect;
-            lastTintRed = tintRed;
-            lastTintGreen = tintGreen;
-            lastTintBlue = tintBlue;
-            lastTintAlpha = tintAlpha;
-            needsUpdate = false;
-            applyRenderEffect();
+    /**
+     * Freeze the composited panes into a bitmap once the inputs stayed the same for a few
+     * frames, so redraws of the host, e.g. for animated children, sample the bitmap instead of
+     * running the effects again. While the inputs keep changing, like during a drag, the panes
+     * are drawn directly and nothing is frozen. The bitmap arrives a frame or more later,
+     * until then the panes keep being drawn
+     */
+    private void updateOutputCache() {
+        GlassParams p = applied;
+        if (!outputCache || p == null || p.width <= 0 || p.height <= 0 || capture == null) {
+            setOutputValid(false);
+            return;
+        }
+        frameKey[0] = capture.generation;
+        frameKey[1] = capture.snapshotVersion;
+        frameKey[2] = recordedX;
+        frameKey[3] = recordedY;
+        frameKey[4] = recordedWidth;
+        frameKey[5] = recordedHeight;
+        frameKey[6] = p.version;
+        frameKey[7] = sourceGeneration;
+        // Already frozen, or being frozen, for these inputs
+        if ((outputValid || outputPending) && Arrays.equals(frameKey, outputKey)) return;
+        setOutputValid(false);
+
+        if (!Arrays.equals(frameKey, pendingKey)) {
+            System.arraycopy(frameKey, 0, pendingKey, 0, OUTPUT_KEY_SIZE);
+            stableFrames = 0;
+            return;
+        }
+        if (++stableFrames < OUTPUT_STABLE_FRAMES) return;
+
+        outputNode.setPosition(0, 0, p.width, p.height);
+        Canvas rec = outputNode.beginRecording(p.width, p.height);
+        for (int i = 0; i < paneCount; i++) {
+            panes[i].draw(rec);
+        }
+        outputNode.endRecording();
+        if (outputSnapshot == null) outputSnapshot = new BackdropSnapshot(outputReady);
+        if (!outputSnapshot.capture(outputNode, 0f, 0f, p.width, p.height, 1f)) return;
+        outputBuilds++;
+        outputPending = true;
+        System.arraycopy(frameKey, 0, outputKey, 0, OUTPUT_KEY_SIZE);
+    }
+
+    private void onOutputReady() {
+        if (!outputPending) return;
+        outputPending = false;
+        // The inputs changed while the frame was rendering, a later stable run freezes them
+        if (outputSnapshot == null || !Arrays.equals(outputKey, pendingKey)) return;
+        outputBitmap = outputSnapshot.getBitmap();
+        setOutputValid(outputBitmap != null);
+    }
+
+    private void setOutputValid(boolean valid) {
+        if (outputValid == valid) return;
+        outputValid = valid;
+        host.invalidate();
+    }
+
+    @Override
+    public void setOutputCache(boolean enable) {
+        if (outputCache == enable) return;
+        outputCache = enable;
+        if (!enable) releaseOutput();
+    }
+
+    private void releaseOutput() {
+        setOutputValid(false);
+        if (outputSnapshot != null) {
+            outputSnapshot.release();
+            outputSnapshot = null;
+        }
+        outputNode.discardDisplayList();
+        outputBitmap = null;
+        outputPending = false;
+        Arrays.fill(pendingKey, 0);
+        stableFrames = 0;
+    }
+
+    @Override
+    public int getLastRebuiltStages() {
+        return lastRebuiltStages;
+    }
+
+    @Override
+    public long getStageRebuildCount(int stage) {
+        return stageRebuilds[Integer.numberOfTrailingZeros(stage)];
+    }
+
+    @Override
+    public void dispose() {
+        for (int i = 0; i < paneCount; i++) {
+            panes[i].node.discardDisplayList();
         }
+        releaseOutput();
+        blurNode.discardDisplayList();
+        backdrop.discardDisplayList();
+        if (capture != null) {
+            if (snapshotMode) capture.setSnapshot(snapshotChanged, 0f);
+            if (scrollAware) capture.setScrollAware(false);
+            capture.release(sampled);
+            capture = null;
+        }
+        // Everything is recorded and applied again if the glass is drawn after this
+        applied = null;
+        sourceGeneration++;
     }
 
+    /**
+     * Bring the shared recording of the source up to date and place it under the glass.
+     * The backdrop node only draws the shared node, so following the glass when it moves is a
+     * position change: as long as the glass samples inside the recorded area nothing is
+     * recorded again and the effects built on top stay valid. The effects only sample the pane
+     * bounds, so the rest of the recording is never filtered
+     */
     private void record() {
         int w = target.getWidth(), h = target.getHeight();
-        if (w == 0 || h == 0) return;
+        if (w == 0 || h == 0 || limit.isEmpty()) return;
+
+        if (capture == null) {
+            capture = BackdropCapture.acquire(target, sampled);
+            if (scrollAware) capture.setScrollAware(true);
+            if (snapshotMode) capture.setSnapshot(snapshotChanged, snapshotScale);
+            recordBackdrop(w, h);
+        }
 
-        Canvas rec = node.beginRecording(w, h);
         target.getLocationInWindow(tp);
         host.getLocationInWindow(hp);
-        rec.translate(-(hp[0] - tp[0]), -(hp[1] - tp[1]));
-        target.draw(rec);
-        node.endRecording();
+        int dx = hp[0] - tp[0], dy = hp[1] - tp[1];
+        sampled.set(limit);
+        sampled.offset(dx, dy);
+
+        if (framesSinceRecord + 1 < refreshInterval && capture.isOutdated()) {
+            // Keep drawing the previous recording, the next allowed frame records the change
+            capture.invalidate();
+            framesSinceRecord++;
+            recordsSkipped++;
+        } else if (capture.update()) {
+            framesSinceRecord = 0;
+            recordsPerformed++;
+        } else {
+            framesSinceRecord++;
+            recordsSkipped++;
+        }
+        if (snapshotMode) capture.updateSnapshot();
+
+        if (w != recordedWidth || h != recordedHeight || dx != recordedX || dy != recordedY) {
+            backdrop.setPosition(-dx, -dy, w - dx, h - dy);
+            recordedWidth = w;
+            recordedHeight = h;
+            recordedX = dx;
+            recordedY = dy;
+        }
+    }
+
+    /**
+     * Draw the shared recording, or in snapshot mode the shared snapshot of it once one arrived.
+     * Both are placed and shifted by the capture, so this is only recorded again when switching
+     * between them
+     */
+    private void recordBackdrop(int w, int h) {
+        snapshotShown = snapshotMode && capture.hasSnapshot();
+        Canvas rec = backdrop.beginRecording(w, h);
+        rec.drawRenderNode(snapshotShown ? capture.snapshotNode : capture.node);
+        backdrop.endRecording();
+    }
+
+    private void onSnapshotChanged() {
+        if (capture == null) return;
+        if (snapshotShown != (snapshotMode && capture.hasSnapshot())) {
+            recordBackdrop(target.getWidth(), target.getHeight());
+        }
+        host.invalidate();
+    }
+
+    @Override
+    public void setSnapshotMode(boolean enable, float scale) {
+        scale = Math.max(0.05f, Math.min(1f, scale));
+        if (enable == snapshotMode && scale == snapshotScale) return;
+        snapshotMode = enable;
+        snapshotScale = scale;
+        if (capture == null) return;
+        capture.setSnapshot(snapshotChanged, enable ? scale : 0f);
+        if (snapshotShown != (enable && capture.hasSnapshot())) {
+            recordBackdrop(target.getWidth(), target.getHeight());
+        }
+        host.invalidate();
+    }
+
+    @Override
+    public void setScrollAware(boolean enable) {
+        if (scrollAware == enable) return;
+        scrollAware = enable;
+        if (capture != null) capture.setScrollAware(enable);
+    }
+
+    @Override
+    public void invalidateBackdrop() {
+        if (capture != null) capture.invalidate();
+    }
+
+    @Override
+    public long getRecordsPerformed() {
+        return recordsPerformed;
+    }
+
+    @Override
+    public long getRecordsSkipped() {
+        return recordsSkipped;
+    }
+
+    @Override
+    public void setQualityTier(QualityTier tier) {
+        refreshInterval = tier.refreshInterval;
+    }
+
+    @Override
+    public void fillMetrics(GlassMetrics out) {
+        out.framesRendered = framesRendered;
+        out.framesSkipped = framesSkipped;
+        out.recordsPerformed = recordsPerformed;
+        out.recordsSkipped = recordsSkipped;
+        out.lastRecordNanos = lastRecordNanos;
+        out.totalRecordNanos = totalRecordNanos;
+        out.snapshotsTaken = capture != null ? capture.snapshotsTaken : 0;
+        out.outputCacheBuilds = outputBuilds;
+        out.outputCacheHits = outputHits;
+        System.arraycopy(stageRebuilds, 0, out.stageRebuilds, 0, stageRebuilds.length);
+        out.bufferWidth = limit.isEmpty() ? 0 : Math.max(1, (int) Math.ceil(limit.width() * blurScale));
+        out.bufferHeight = limit.isEmpty() ? 0 : Math.max(1, (int) Math.ceil(limit.height() * blurScale));
     }
 
     @Override
     public void draw(Canvas canvas) {
         if (!canvas.isHardwareAccelerated()) return;
-        canvas.drawRenderNode(node);
+        if (outputValid) {
+            canvas.drawBitmap(outputBitmap, 0f, 0f, null);
+            outputHits++;
+            return;
+        }
+        for (int i = 0; i < paneCount; i++) {
+            panes[i].draw(canvas);
+        }
     }
 
     private void applyRenderEffect() {
@@ -173,92 +394,330 @@ public final class LiquidGlassimpl implements Impl {
         int height = target.getHeight();
         if (width == 0 || height == 0) return;
 
-        float cornerRadiusPx = Config.CORNER_RADIUS_PX;
-        float eccentricFactor = Config.ECCENTRIC_FACTOR;
-        float refractionHeight = Config.REFRACTION_HEIGHT;
-        float refractionAmount = Config.REFRACTION_OFFSET;
-        float contrast = Config.CONTRAST;
-        float whitePoint = Config.WHITE_POINT;
-        float chromaMultiplier = Config.CHROMA_MULTIPLIER;
-        float blurLevel = Math.max(0f, Config.BLUR_RADIUS);
-        float chromaticAberration = Config.DISPERSION;
-        float depthEffect = Config.DEPTH_EFFECT;
-        float tintRed = Config.TINT_COLOR_RED;
-        float tintGreen = Config.TINT_COLOR_GREEN;
-        float tintBlue = Config.TINT_COLOR_BLUE;
-        float tintAlpha = Config.TINT_ALPHA;
-        float[] size = new float[]{Config.WIDTH, Config.HEIGHT};
-        float[] offset = new float[]{0f, 0f};
-        float[] cornerRadii = new float[]{
-                cornerRadiusPx, cornerRadiusPx, cornerRadiusPx, cornerRadiusPx
-        };
-
-        RenderEffect contentEffect = null;
-        if (blurLevel > 0.01f) {
-            long now = System.currentTimeMillis();
-            if (cachedBlurEffect == null || Math.abs(blurLevel - lastSigma) > 0.3f || now - lastBlurUpdateTime > 120) {
-                try {
-                    contentEffect = RenderEffect.createBlurEffect(blurLevel, blurLevel, Shader.TileMode.CLAMP);
-                    cachedBlurEffect = contentEffect;
-                    lastSigma = blurLevel;
-                    lastBlurUpdateTime = now;
-                } catch (Exception e) {
-                    contentEffect = cachedBlurEffect;
-                }
+        GlassParams p = params;
+        int dirty = p.diff(applied);
+        if (dirty == 0) return;
+
+        if ((dirty & GlassParams.STAGE_BLUR) != 0) {
+            float blurLevel = Math.max(0f, p.blurRadius);
+            float scale = p.blurDownsample ? downsampleScale(blurLevel) : 1f;
+            RenderEffect previous = cachedBlurEffect;
+            boolean rescaled = scale != blurScale;
+            if (rescaled) {
+                blurScale = scale;
+                sourceGeneration++;
+            }
+            updateBlurEffect(blurLevel * scale);
+            if (blurScale < 1f) {
+                blurNode.setRenderEffect(cachedBlurEffect);
+                paneBlurEffect = null;
+            } else {
+                blurNode.setRenderEffect(null);
+                paneBlurEffect = cachedBlurEffect;
+            }
+            // Radii within one quantization step share an effect, nothing above the blur changes
+            if (!rescaled && previous == cachedBlurEffect) {
+                dirty &= ~GlassParams.STAGE_BLUR;
+            }
+        }
+
+        layoutPanes(p);
+        for (int i = 0; i < paneCount; i++) {
+            panes[i].apply(p, dirty);
+        }
+
+        applied = p;
+        lastRebuiltStages = dirty;
+        for (int i = 0; i < GlassParams.STAGE_COUNT; i++) {
+            if ((dirty & (1 << i)) != 0) stageRebuilds[i]++;
+        }
+    }
+
+    /**
+     * Split the glass into the panes it is rendered with. In split mode only the four rim strips
+     * run refraction and dispersion, the interior only runs blur, material and tint
+     */
+    private void layoutPanes(GlassParams p) {
+        int w = p.width, h = p.height;
+        float amount = Math.abs(p.refractionOffset);
+        float spread = amount * p.dispersion;
+        float blurReach = 3f * Math.max(0f, p.blurRadius);
+        // Rim samples are pulled inwards twice (refraction and dispersion stage),
+        // dispersion taps and the blur kernel reach the same distance in every direction
+        int inner = (int) Math.ceil(2f * amount + spread + blurReach) + 1;
+        int outer = (int) Math.ceil((p.refractionOffset > 0f ? 2f * amount : 0f) + spread + blurReach) + 1;
+        if (limit.left != -outer || limit.top != -outer || limit.right != w + outer || limit.bottom != h + outer) {
+            limit.set(-outer, -outer, w + outer, h + outer);
+            sourceGeneration++;
+        }
+        if (blurScale < 1f) recordBlurNode();
+
+        int band = rimBand(p);
+        if (!p.splitRim || band * 2 >= Math.min(w, h)) {
+            paneCount = 1;
+            pane(0, true).layout(0, 0, w, h, limit.left, limit.top, limit.right, limit.bottom);
+            return;
+        }
+
+        paneCount = MAX_PANES;
+        pane(0, true).layout(0, 0, w, band, inner);
+        pane(1, true).layout(0, h - band, w, h, inner);
+        pane(2, true).layout(0, band, band, h - band, inner);
+        pane(3, true).layout(w - band, band, w, h - band, inner);
+        pane(4, false).layout(band, band, w - band, h - band, (int) Math.ceil(blurReach) + 1);
+    }
+
+    /**
+     * Downsampling factor for the blur, heavier blurs lose nothing visible at a lower resolution
+     */
+    private static float downsampleScale(float blurLevel) {
+        if (blurLevel <= 4f) return 1f;
+        if (blurLevel <= 12f) return 0.5f;
+        if (blurLevel <= 24f) return 0.25f;
+        return 0.125f;
+    }
+
+    /**
+     * Draw the backdrop at the blur scale into the blur node, the panes sample it scaled back up
+     */
+    private void recordBlurNode() {
+        if (blurRecordedGeneration == sourceGeneration) return;
+        int sw = Math.max(1, (int) Math.ceil(limit.width() * blurScale));
+        int sh = Math.max(1, (int) Math.ceil(limit.height() * blurScale));
+        blurNode.setPosition(0, 0, sw, sh);
+        Canvas rec = blurNode.beginRecording(sw, sh);
+        rec.scale(blurScale, blurScale);
+        rec.translate(-limit.left, -limit.top);
+        rec.drawRenderNode(backdrop);
+        blurNode.endRecording();
+        blurRecordedGeneration = sourceGeneration;
+    }
+
+    /**
+     * Distance from the glass edge past which refraction and dispersion leave pixels untouched.
+     * Inside the corner circles the distance to the edge shrinks, so the band grows with the radius
+     */
+    private static int rimBand(GlassParams p) {
+        float radius = Math.min(p.cornerRadius, Math.min(p.width, p.height) * 0.5f);
+        float height = Math.max(0f, p.refractionHeight);
+        float band = radius > height ? radius - (radius - height) / (float) Math.sqrt(2) : height;
+        return (int) Math.ceil(band) + 1;
+    }
+
+    private Pane pane(int index, boolean rim) {
+        Pane pane = panes[index];
+        if (pane == null || pane.rim != rim) {
+            if (pane != null) pane.node.discardDisplayList();
+            pane = new Pane(rim);
+            panes[index] = pane;
+        }
+        return pane;
+    }
+
+    private static int fusedVariant(GlassParams p) {
+        int variant = 0;
+        if (p.refractionHeight > 0f && p.refractionOffset != 0f) variant |= ShaderCache.FUSED_REFRACTION;
+        if (p.dispersionTaps() > 1) variant |= ShaderCache.FUSED_DISPERSION;
+        if (p.contrast != 0f || p.whitePoint != 0f || p.chromaMultiplier != 1f) variant |= ShaderCache.FUSED_MATERIAL;
+        if (p.tintAlpha != 0f) variant |= ShaderCache.FUSED_TINT;
+        return variant;
+    }
+
+    private void updateBlurEffect(float blurLevel) {
+        cachedBlurEffect = blurLevel > 0.01f ? BlurEffectCache.obtain(blurLevel) : null;
+    }
+
+    /**
+     * A region of the glass with its own RenderNode and effect chain. The node covers the
+     * region plus the margin its effects sample from and is drawn clipped to the region,
+     * so the shaders are only evaluated inside it
+     */
+    private final class Pane {
+        final boolean rim;
+        final RenderNode node = new RenderNode("AndroidLiquidGlassView");
+        final Rect rect = new Rect();
+        final Rect bounds = new Rect();
+        private boolean relaid = true;
+        private int recordedGeneration = -1;
+
+        private RenderEffect refractionEffect, refractionChain, materialEffect, materialChain,
+                dispersionEffect, tintEffect, tintChain, fusedEffect, finalChain;
+
+        Pane(boolean rim) {
+            this.rim = rim;
+        }
+
+        void layout(int l, int t, int r, int b, int margin) {
+            layout(l, t, r, b,
+                    Math.max(l - margin, limit.left),
+                    Math.max(t - margin, limit.top),
+                    Math.min(r + margin, limit.right),
+                    Math.min(b + margin, limit.bottom));
+        }
+
+        void layout(int l, int t, int r, int b, int bl, int bt, int br, int bb) {
+            rect.set(l, t, r, b);
+            if (!relaid && recordedGeneration == sourceGeneration
+                    && bounds.left == bl && bounds.top == bt && bounds.right == br && bounds.bottom == bb) {
+                return;
+            }
+            bounds.set(bl, bt, br, bb);
+            node.setPosition(bounds);
+            Canvas rec = node.beginRecording(bounds.width(), bounds.height());
+            rec.translate(-bounds.left, -bounds.top);
+            if (blurScale < 1f) {
+                rec.translate(limit.left, limit.top);
+                rec.scale(1f / blurScale, 1f / blurScale);
+                rec.drawRenderNode(blurNode);
+            } else {
+                rec.drawRenderNode(backdrop);
+            }
+            node.endRecording();
+            recordedGeneration = sourceGeneration;
+            relaid = true;
+        }
+
+        void apply(GlassParams p, int dirty) {
+            if (relaid) {
+                dirty = GlassParams.STAGE_ALL;
+                relaid = false;
+            }
+            if (dirty == 0) return;
+            if (p.fusedShader) {
+                applyFusedEffect(p, dirty);
+            } else if (rim) {
+                applyChainEffect(p, dirty);
             } else {
-                contentEffect = cachedBlurEffect;
+                applyInteriorChainEffect(p, dirty);
             }
+            node.setRenderEffect(finalChain);
         }
 
-        refractionShader.setFloatUniform("size", size);
-        refractionShader.setFloatUniform("cornerRadius", cornerRadiusPx);
-        refractionShader.setFloatUniform("eccentricFactor", eccentricFactor);
-        refractionShader.setFloatUniform("refractionHeight", refractionHeight);
-        refractionShader.setFloatUniform("refractionAmount", refractionAmount);
-
-        RenderEffect refraction = RenderEffect.createRuntimeShaderEffect(refractionShader, "image");
-        RenderEffect refractionChain = (contentEffect != null)
-                ? RenderEffect.createChainEffect(refraction, contentEffect)
-                : refraction;
-        materialShader.setFloatUniform("contrast", contrast);
-        materialShader.setFloatUniform("whitePoint", whitePoint);
-        materialShader.setFloatUniform("chromaMultiplier", chromaMultiplier);
-        RenderEffect material = RenderEffect.createRuntimeShaderEffect(materialShader, "image");
-        RenderEffect materialChain = RenderEffect.createChainEffect(material, refractionChain);
-        dispersionShader.setFloatUniform("size", size);
-        dispersionShader.setFloatUniform("offset", offset);
-        dispersionShader.setFloatUniform("cornerRadii", cornerRadii);
-        dispersionShader.setFloatUniform("refractionHeight", refractionHeight);
-        dispersionShader.setFloatUniform("refractionAmount", refractionAmount);
-        dispersionShader.setFloatUniform("depthEffect", depthEffect);
-        dispersionShader.setFloatUniform("chromaticAberration", chromaticAberration);
-        RenderEffect chromaEffect = RenderEffect.createRuntimeShaderEffect(dispersionShader, "content");
-        tintShader.setFloatUniform("tintColor", new float[]{tintRed, tintGreen, tintBlue});
-        tintShader.setFloatUniform("tintAlpha", tintAlpha);
-        RenderEffect tintEffect = RenderEffect.createRuntimeShaderEffect(tintShader, "content");
-        RenderEffect chainAfterChroma = RenderEffect.createChainEffect(tintEffect, chromaEffect);
-        RenderEffect finalChain = RenderEffect.createChainEffect(chainAfterChroma, materialChain);
-
-        node.setRenderEffect(finalChain);
-    }
-
-    private RuntimeShader loadAgsl(Resources resources, int resourceId) {
-        @Language("AGSL")
-        String shaderCode = loadRaw(resources, resourceId);
-        return new RuntimeShader(shaderCode);
-    }
-
-    private String loadRaw(Resources resources, int resourceId) {
-        try (InputStream inputStream = resources.openRawResource(resourceId);
-             BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
-            StringBuilder sb = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                sb.append(line).append('\n');
+        void draw(Canvas canvas) {
+            int save = canvas.save();
+            canvas.clipRect(rect);
+            canvas.drawRenderNode(node);
+            canvas.restoreToCount(save);
+        }
+
+        private void applyFusedEffect(GlassParams p, int dirty) {
+            if ((dirty & ~GlassParams.STAGE_BLUR) != 0) {
+                int variant = fusedVariant(p);
+                if (!rim) variant &= ~(ShaderCache.FUSED_REFRACTION | ShaderCache.FUSED_DISPERSION);
+                Resources resources = target.getResources();
+                RuntimeShader shader;
+                // The map is computed off the main thread, the analytic shader renders until then
+                BitmapShader map = p.displacementMap && rim ? DisplacementMapCache.obtain(p, mapReady) : null;
+                if (map != null) {
+                    shader = ShaderCache.displacementShader(resources, variant);
+                    shader.setInputBuffer("displacement", map);
+                    shader.setFloatUniform("quadrant",
+                            DisplacementMap.quadrantWidth(p.width), DisplacementMap.quadrantHeight(p.height));
+                    shader.setFloatUniform("displacementScale", DisplacementMap.scale(p.refractionOffset));
+                } else {
+                    shader = ShaderCache.fusedShader(resources, variant);
+                    shader.setFloatUniform("cornerRadius", p.cornerRadius);
+                    shader.setFloatUniform("refractionHeight", p.refractionHeight);
+                    shader.setFloatUniform("refractionAmount", p.refractionOffset);
+                    shader.setFloatUniform("eccentricFactor", p.eccentricFactor);
+                    shader.setFloatUniform("depthEffect", p.depthEffect);
+                }
+                shader.setFloatUniform("size", p.width, p.height);
+                shader.setFloatUniform("offset", bounds.left, bounds.top);
+                shader.setFloatUniform("chromaticAberration", p.dispersion);
+                shader.setFloatUniform("dispersionTaps", p.dispersionTaps());
+                shader.setFloatUniform("adaptiveTaps", p.dispersionQuality == GlassParams.DISPERSION_QUALITY_AUTO ? 1f : 0f);
+                shader.setFloatUniform("contrast", p.contrast);
+                shader.setFloatUniform("whitePoint", p.whitePoint);
+                shader.setFloatUniform("chromaMultiplier", p.chromaMultiplier);
+                shader.setFloatUniform("tintColor", p.tintColorRed, p.tintColorGreen, p.tintColorBlue);
+                shader.setFloatUniform("tintAlpha", p.tintAlpha);
+                fusedEffect = RenderEffect.createRuntimeShaderEffect(shader, "image");
+            }
+            finalChain = (paneBlurEffect != null)
+                    ? RenderEffect.createChainEffect(fusedEffect, paneBlurEffect)
+                    : fusedEffect;
+        }
+
+        private void applyChainEffect(GlassParams p, int dirty) {
+            float cornerRadiusPx = p.cornerRadius;
+            float refractionHeight = p.refractionHeight;
+            float refractionAmount = p.refractionOffset;
+
+            if ((dirty & GlassParams.STAGE_REFRACTION) != 0) {
+                refractionShader.setFloatUniform("size", p.width, p.height);
+                refractionShader.setFloatUniform("offset", bounds.left, bounds.top);
+                refractionShader.setFloatUniform("cornerRadius", cornerRadiusPx);
+                refractionShader.setFloatUniform("eccentricFactor", p.eccentricFactor);
+                refractionShader.setFloatUniform("refractionHeight", refractionHeight);
+                refractionShader.setFloatUniform("refractionAmount", refractionAmount);
+                refractionEffect = RenderEffect.createRuntimeShaderEffect(refractionShader, "image");
+            }
+            if ((dirty & (GlassParams.STAGE_REFRACTION | GlassParams.STAGE_BLUR)) != 0) {
+                refractionChain = (paneBlurEffect != null)
+                        ? RenderEffect.createChainEffect(refractionEffect, paneBlurEffect)
+                        : refractionEffect;
+            }
+
+            if ((dirty & GlassParams.STAGE_MATERIAL) != 0) {
+                materialEffect = createMaterialEffect(p);
             }
-            return sb.toString();
-        } catch (IOException e) {
-            throw new RuntimeException("Error loading shader: " + resourceId, e);
+            if ((dirty & (GlassParams.STAGE_MATERIAL | GlassParams.STAGE_REFRACTION | GlassParams.STAGE_BLUR)) != 0) {
+                materialChain = RenderEffect.createChainEffect(materialEffect, refractionChain);
+            }
+
+            if ((dirty & GlassParams.STAGE_DISPERSION) != 0) {
+                dispersionShader.setFloatUniform("size", p.width, p.height);
+                dispersionShader.setFloatUniform("offset", bounds.left, bounds.top);
+                dispersionShader.setFloatUniform("cornerRadii",
+                        cornerRadiusPx, cornerRadiusPx, cornerRadiusPx, cornerRadiusPx);
+                dispersionShader.setFloatUniform("refractionHeight", refractionHeight);
+                dispersionShader.setFloatUniform("refractionAmount", refractionAmount);
+                dispersionShader.setFloatUniform("depthEffect", p.depthEffect);
+                dispersionShader.setFloatUniform("chromaticAberration", p.dispersion);
+                dispersionShader.setFloatUniform("dispersionTaps", p.dispersionTaps());
+                dispersionShader.setFloatUniform("adaptiveTaps", p.dispersionQuality == GlassParams.DISPERSION_QUALITY_AUTO ? 1f : 0f);
+                dispersionEffect = RenderEffect.createRuntimeShaderEffect(dispersionShader, "content");
+            }
+
+            if ((dirty & GlassParams.STAGE_TINT) != 0) {
+                tintEffect = createTintEffect(p);
+            }
+            if ((dirty & (GlassParams.STAGE_TINT | GlassParams.STAGE_DISPERSION)) != 0) {
+                tintChain = RenderEffect.createChainEffect(tintEffect, dispersionEffect);
+            }
+
+            finalChain = RenderEffect.createChainEffect(tintChain, materialChain);
+        }
+
+        private void applyInteriorChainEffect(GlassParams p, int dirty) {
+            if ((dirty & GlassParams.STAGE_MATERIAL) != 0) {
+                materialEffect = createMaterialEffect(p);
+            }
+            if ((dirty & (GlassParams.STAGE_MATERIAL | GlassParams.STAGE_BLUR)) != 0) {
+                materialChain = (paneBlurEffect != null)
+                        ? RenderEffect.createChainEffect(materialEffect, paneBlurEffect)
+                        : materialEffect;
+            }
+
+            if ((dirty & GlassParams.STAGE_TINT) != 0) {
+                tintEffect = createTintEffect(p);
+            }
+
+            finalChain = RenderEffect.createChainEffect(tintEffect, materialChain);
+        }
+
+        private RenderEffect createMaterialEffect(GlassParams p) {
+            materialShader.setFloatUniform("contrast", p.contrast);
+            materialShader.setFloatUniform("whitePoint", p.whitePoint);
+            materialShader.setFloatUniform("chromaMultiplier", p.chromaMultiplier);
+            return RenderEffect.createRuntimeShaderEffect(materialShader, "image");
+        }
+
+        private RenderEffect createTintEffect(GlassParams p) {
+            tintShader.setFloatUniform("tintColor", p.tintColorRed, p.tintColorGreen, p.tintColorBlue);
+            tintShader.setFloatUniform("tintAlpha", p.tintAlpha);
+            return RenderEffect.createRuntimeShaderEffect(tintShader, "content");
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright 2025 QmDeve
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author QmDeve
+ * @github https://github.com/QmDeve
+ * @since 2025-11-02
+ */
+
+package com.qmdeve.liquidglass.impl;
+
+import android.content.res.Resources;
+import android.graphics.RuntimeShader;
+import android.os.Build;
+import android.util.SparseArray;
+
+import androidx.annotation.RequiresApi;
+
+import com.qmdeve.liquidglass.R;
+
+import org.intellij.lang.annotations.Language;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Process-wide cache of AGSL sources and compiled RuntimeShaders.
+ * <p>
+ * Shaders are shared by every glass instance. Callers must set every uniform of a shader
+ * right before creating a RenderEffect from it, the effect keeps its own copy of the uniforms.
+ */
+@RequiresApi(api = Build.VERSION_CODES.TIRAMISU)
+public final class ShaderCache {
+
+    public static final int FUSED_REFRACTION = 1;
+    public static final int FUSED_DISPERSION = 1 << 1;
+    public static final int FUSED_MATERIAL = 1 << 2;
+    public static final int FUSED_TINT = 1 << 3;
+
+    private static final int[] SOURCES = {
+            R.raw.liquidglass_refraction_effect,
+            R.raw.liquidglass_material_effect,
+            R.raw.liquidglass_dispersion_effect,
+            R.raw.liquidglass_tint_effect,
+            R.raw.liquidglass_fused_effect,
+            R.raw.liquidglass_displacement_effect
+    };
+
+    private static final SparseArray<String> sources = new SparseArray<>();
+    private static final SparseArray<RuntimeShader> shaders = new SparseArray<>();
+    private static final RuntimeShader[] fusedShaders = new RuntimeShader[16];
+    private static final RuntimeShader[] displacementShaders = new RuntimeShader[16];
+
+    private static long sourceLoadNanos, compileNanos;
+
+    private ShaderCache() {
+    }
+
+    /**
+     * Load every shader source and compile the shaders used by the default style
+     *
+     * @return nanoseconds spent by this call
+     */
+    public static long prewarm(Resources resources) {
+        long start = System.nanoTime();
+        for (int id : SOURCES) {
+            source(resources, id);
+        }
+        shader(resources, R.raw.liquidglass_refraction_effect);
+        shader(resources, R.raw.liquidglass_material_effect);
+        shader(resources, R.raw.liquidglass_dispersion_effect);
+        shader(resources, R.raw.liquidglass_tint_effect);
+        return System.nanoTime() - start;
+    }
+
+    public static synchronized RuntimeShader shader(Resources resources, int resourceId) {
+        RuntimeShader shader = shaders.get(resourceId);
+        if (shader == null) {
+            shader = compile(source(resources, resourceId));
+            shaders.put(resourceId, shader);
+        }
+        return shader;
+    }
+
+    /**
+     * @param variant combination of {@code FUSED_*} flags
+     */
+    public static synchronized RuntimeShader fusedShader(Resources resources, int variant) {
+        return variant(resources, R.raw.liquidglass_fused_effect, variant, fusedShaders);
+    }
+
+    /**
+     * Fused shader variant reading the refraction from a displacement map
+     *
+     * @param variant combination of {@code FUSED_*} flags
+     */
+    public static synchronized RuntimeShader displacementShader(Resources resources, int variant) {
+        return variant(resources, R.raw.liquidglass_displacement_effect, variant, displacementShaders);
+    }
+
+    public static synchronized long getSourceLoadNanos() {
+        return sourceLoadNanos;
+    }
+
+    public static synchronized long getCompileNanos() {
+        return compileNanos;
+    }
+
+    private static synchronized String source(Resources resources, int resourceId) {
+        String source = sources.get(resourceId);
+        if (source == null) {
+            long start = System.nanoTime();
+            source = loadRaw(resources, resourceId);
+            sourceLoadNanos += System.nanoTime() - start;
+            sources.put(resourceId, source);
+        }
+        return source;
+    }
+
+    private static RuntimeShader variant(Resources resources, int resourceId, int variant, RuntimeShader[] cache) {
+        RuntimeShader shader = cache[variant];
+        if (shader == null) {
+            @Language("AGSL")
+            String shaderCode = "const bool HAS_REFRACTION = " + ((variant & FUSED_REFRACTION) != 0) + ";\n"
+                    + "const bool HAS_DISPERSION = " + ((variant & FUSED_DISPERSION) != 0) + ";\n"
+                    + "const bool HAS_MATERIAL = " + ((variant & FUSED_MATERIAL) != 0) + ";\n"
+                    + "const bool HAS_TINT = " + ((variant & FUSED_TINT) != 0) + ";\n"
+                    + source(resources, resourceId);
+            shader = compile(shaderCode);
+            cache[variant] = shader;
+        }
+        return shader;
+    }
+
+    private static RuntimeShader compile(String shaderCode) {
+        long start = System.nanoTime();
+        RuntimeShader shader = new RuntimeShader(shaderCode);
+        compileNanos += System.nanoTime() - start;
+        return shader;
+    }
+
+    private static String loadRaw(Resources resources, int resourceId) {
+        try (InputStream inputStream = resources.openRawResource(resourceId)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = inputStream.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException("Error loading shader: " + resourceId, e);
+        }
+    }
+}
@@ -0,0 +1,264 @@
+/**
+ * Copyright 2025 QmDeve
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author QmDeve
+ * @github https://github.com/QmDeve
+ * @since 2025-11-03
+ */
+
+
+package com.qmdeve.liquidglass.impl;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.view.View;
+
+import com.qmdeve.liquidglass.GlassMetrics;
+import com.qmdeve.liquidglass.GlassParams;
+import com.qmdeve.liquidglass.QualityTier;
+import com.qmdeve.liquidglass.soft.SoftGlassRenderer;
+
+/**
+ * Glass for devices without RuntimeShader. The source under the glass is drawn into a small
+ * software bitmap and the effects run on the CPU, the result is drawn scaled up with filtering.
+ * The source is only drawn again when it changed, the glass moved or the parameters changed.
+ * <p>
+ * A software canvas cannot draw hardware bitmaps. When the source contains one, the glass shows
+ * a translucent fill in the tint color instead, until the backdrop is invalidated or the glass
+ * is attached again
+ */
+public final class SoftwareLiquidGlassImpl implements Impl {
+
+    // Same fill as the static fallback of LiquidGlass
+    private static final float FALLBACK_ALPHA = 0.6f;
+
+    private final View host, target;
+    private final SoftGlassRenderer renderer = new SoftGlassRenderer();
+    private final Canvas captureCanvas = new Canvas();
+    private final Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Paint fallbackPaint = new Paint();
+    private final Rect outputRect = new Rect();
+    private final Rect drawRect = new Rect();
+    private final int[] tp = new int[2];
+    private final int[] hp = new int[2];
+    private Bitmap capture, output;
+    private int[] source, pixels;
+    private float renderedScale;
+    private int renderedX, renderedY;
+    private boolean invalid = true, captureFailed;
+    private long recordsPerformed, recordsSkipped;
+    private long lastRecordNanos, totalRecordNanos;
+    private int refreshInterval = 1, framesSinceRender;
+
+    private GlassParams params, applied;
+
+    private int lastRebuiltStages;
+    private final long[] stageRebuilds = new long[GlassParams.STAGE_COUNT];
+
+    public SoftwareLiquidGlassImpl(View host, View target, GlassParams params) {
+        this.host = host;
+        this.target = target;
+        this.params = params;
+        renderer.setMaxScale(0.5f);
+    }
+
+    @Override
+    public void setParams(GlassParams params) {
+        this.params = params;
+    }
+
+    @Override
+    public void onSizeChanged(int w, int h) {
+        render();
+    }
+
+    @Override
+    public void onPreDraw() {
+        lastRebuiltStages = 0;
+        long start = System.nanoTime();
+        render();
+        lastRecordNanos = System.nanoTime() - start;
+        totalRecordNanos += lastRecordNanos;
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+        if (captureFailed) {
+            canvas.drawPaint(fallbackPaint);
+            return;
+        }
+        if (output == null || applied == null) return;
+        drawRect.set(0, 0, applied.width, applied.height);
+        canvas.drawBitmap(output, outputRect, drawRect, paint);
+    }
+
+    private void render() {
+        GlassParams p = params;
+        int w = target.getWidth(), h = target.getHeight();
+        if (w == 0 || h == 0 || p.width <= 0 || p.height <= 0) return;
+        if (captureFailed) {
+            if (p != applied) applyParams(p);
+            return;
+        }
+
+        target.getLocationInWindow(tp);
+        host.getLocationInWindow(hp);
+        int dx = hp[0] - tp[0], dy = hp[1] - tp[1];
+        float scale = renderer.getScale();
+        boolean unchanged = p == applied && scale == renderedScale && dx == renderedX && dy == renderedY;
+        if (unchanged && !invalid && !target.isDirty()) {
+            framesSinceRender++;
+            recordsSkipped++;
+            return;
+        }
+        if (unchanged && framesSinceRender + 1 < refreshInterval) {
+            // Only the source changed, keep the previous output until the next allowed frame
+            invalid = true;
+            framesSinceRender++;
+            recordsSkipped++;
+            return;
+        }
+        if (p != applied) applyParams(p);
+
+        int ow = renderer.getOutputWidth(), oh = renderer.getOutputHeight();
+        int margin = renderer.getMargin();
+        int sw = ow + 2 * margin, sh = oh + 2 * margin;
+        capture = ensureBitmap(capture, sw, sh);
+        output = ensureBitmap(output, ow, oh);
+        if (source == null || source.length < sw * sh) source = new int[sw * sh];
+        if (pixels == null || pixels.length < ow * oh) pixels = new int[ow * oh];
+
+        long captureStart = System.nanoTime();
+        capture.eraseColor(0);
+        captureCanvas.setBitmap(capture);
+        captureCanvas.translate(margin, margin);
+        captureCanvas.scale(scale, scale);
+        captureCanvas.translate(-dx - target.getScrollX(), -dy - target.getScrollY());
+        try {
+            target.draw(captureCanvas);
+        } catch (IllegalArgumentException e) {
+            // "Software rendering doesn't support hardware bitmaps"
+            captureFailed = true;
+            host.invalidate();
+            return;
+        } finally {
+            captureCanvas.setBitmap(null);
+        }
+
+        capture.getPixels(source, 0, sw, 0, 0, sw, sh);
+        renderer.render(source, pixels, System.nanoTime() - captureStart);
+        output.setPixels(pixels, 0, ow, 0, 0, ow, oh);
+        outputRect.set(0, 0, ow, oh);
+
+        renderedScale = scale;
+        renderedX = dx;
+        renderedY = dy;
+        invalid = false;
+        framesSinceRender = 0;
+        recordsPerformed++;
+        host.invalidate();
+    }
+
+    private void applyParams(GlassParams p) {
+        int dirty = p.diff(applied);
+        renderer.setShape(p.width, p.height, p.cornerRadius, p.refractionHeight, p.refractionOffset, p.eccentricFactor);
+        renderer.setBlurRadius(p.blurRadius);
+        renderer.setMaterial(p.contrast, p.whitePoint, p.chromaMultiplier);
+        renderer.setDispersion(p.dispersion, p.depthEffect, p.dispersionTaps(),
+                p.dispersionQuality == GlassParams.DISPERSION_QUALITY_AUTO);
+        renderer.setTint(p.tintColorRed, p.tintColorGreen, p.tintColorBlue, p.tintAlpha);
+        float alpha = FALLBACK_ALPHA + (1f - FALLBACK_ALPHA) * p.tintAlpha;
+        fallbackPaint.setColor(Color.argb(
+                Math.round(alpha * 255),
+                Math.round(p.tintColorRed * 255),
+                Math.round(p.tintColorGreen * 255),
+                Math.round(p.tintColorBlue * 255)));
+
+        applied = p;
+        lastRebuiltStages = dirty;
+        for (int i = 0; i < GlassParams.STAGE_COUNT; i++) {
+            if ((dirty & (1 << i)) != 0) stageRebuilds[i]++;
+        }
+    }
+
+    private static Bitmap ensureBitmap(Bitmap bitmap, int w, int h) {
+        if (bitmap != null && bitmap.getWidth() == w && bitmap.getHeight() == h) return bitmap;
+        if (bitmap != null) bitmap.recycle();
+        return Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
+    }
+
+    @Override
+    public int getLastRebuiltStages() {
+        return lastRebuiltStages;
+    }
+
+    @Override
+    public long getStageRebuildCount(int stage) {
+        return stageRebuilds[Integer.numberOfTrailingZeros(stage)];
+    }
+
+    @Override
+    public void invalidateBackdrop() {
+        invalid = true;
+        captureFailed = false;
+    }
+
+    @Override
+    public long getRecordsPerformed() {
+        return recordsPerformed;
+    }
+
+    @Override
+    public long getRecordsSkipped() {
+        return recordsSkipped;
+    }
+
+    @Override
+    public void setQualityTier(QualityTier tier) {
+        refreshInterval = tier.refreshInterval;
+        renderer.setMaxScale(tier.renderScale);
+    }
+
+    /**
+     * Every recording runs the whole CPU pipeline, so rendered and skipped frames match the
+     * record counters. The buffer is the bitmap the effects are computed at
+     */
+    @Override
+    public void fillMetrics(GlassMetrics out) {
+        out.framesRendered = recordsPerformed;
+        out.framesSkipped = recordsSkipped;
+        out.recordsPerformed = recordsPerformed;
+        out.recordsSkipped = recordsSkipped;
+        out.lastRecordNanos = lastRecordNanos;
+        out.totalRecordNanos = totalRecordNanos;
+        System.arraycopy(stageRebuilds, 0, out.stageRebuilds, 0, stageRebuilds.length);
+        out.bufferWidth = output != null ? output.getWidth() : 0;
+        out.bufferHeight = output != null ? output.getHeight() : 0;
+    }
+
+    @Override
+    public void dispose() {
+        if (capture != null) capture.recycle();
+        if (output != null) output.recycle();
+        capture = null;
+        output = null;
+        applied = null;
+        invalid = true;
+        captureFailed = false;
+    }
+}
@@ -0,0 +1,63 @@
+/**
+ * Copyright 2025 QmDeve
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author QmDeve
+ * @github https://github.com/QmDeve
+ * @since 2025-11-05
+ */
+
+package com.qmdeve.liquidglass.power;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Steps down with the thermal status and the thermal headroom forecast, battery saver caps the
+ * glass at {@link #LEVEL_MINIMAL}. Light throttling or a headroom of 0.7 reduces the quality,
+ * moderate throttling or 0.85 renders the last quality tier, severe throttling or a headroom
+ * of 1.0 draws the static fill. A level reached through the headroom is only left once the
+ * headroom dropped a margin below its threshold, so a forecast hovering around a threshold
+ * does not switch the rendering back and forth
+ */
+public class DefaultGlassPolicy implements GlassPolicy {
+
+    private static final float[] HEADROOM = {0.7f, 0.85f, 1.0f};
+    private static final float RECOVERY_MARGIN = 0.05f;
+
+    @Override
+    public int evaluate(@NonNull PowerSource source, int currentLevel) {
+        int level = statusLevel(source.getThermalStatus());
+        level = Math.max(level, headroomLevel(source.getThermalHeadroom(), currentLevel));
+        if (source.isPowerSaveMode()) level = Math.max(level, LEVEL_MINIMAL);
+        return level;
+    }
+
+    protected int statusLevel(int thermalStatus) {
+        if (thermalStatus >= PowerSource.THERMAL_STATUS_SEVERE) return LEVEL_STATIC;
+        if (thermalStatus >= PowerSource.THERMAL_STATUS_MODERATE) return LEVEL_MINIMAL;
+        if (thermalStatus >= PowerSource.THERMAL_STATUS_LIGHT) return LEVEL_REDUCED;
+        return LEVEL_FULL;
+    }
+
+    protected int headroomLevel(float headroom, int currentLevel) {
+        if (Float.isNaN(headroom)) return LEVEL_FULL;
+        int level = LEVEL_FULL;
+        for (int i = 0; i < HEADROOM.length; i++) {
+            // Keep a level already reached until the headroom falls below the recovery margin
+            float threshold = currentLevel > i ? HEADROOM[i] - RECOVERY_MARGIN : HEADROOM[i];
+            if (headroom >= threshold) level = i + 1;
+        }
+        return level;
+    }
+}
@@ -0,0 +1,46 @@
+/**
+ * Copyright 2025 QmDeve
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author QmDeve
+ * @github https://github.com/QmDeve
+ * @since 2025-11-05
+ */
+
+package com.qmdeve.liquidglass.power;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Decides how much rendering work the glass may do under the current power state.
+ * Levels only ever lower the quality chosen by the app and the frame time governor
+ */
+public interface GlassPolicy {
+
+    /** Render as configured */
+    int LEVEL_FULL = 0;
+    /** Render no better than the middle of the quality ladder */
+    int LEVEL_REDUCED = 1;
+    /** Render no better than the last tier of the quality ladder */
+    int LEVEL_MINIMAL = 2;
+    /** Draw a static tinted translucent fill, no capture, refraction or blur */
+    int LEVEL_STATIC = 3;
+
+    /**
+     * @param source       current power state
+     * @param currentLevel level the glass renders at, for hysteresis
+     * @return one of {@code LEVEL_*}
+     */
+    int evaluate(@NonNull PowerSource source, int currentLevel);
+}
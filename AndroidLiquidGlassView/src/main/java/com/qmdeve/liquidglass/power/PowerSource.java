@@ -0,0 +1,63 @@
+/**
+ * Copyright 2025 QmDeve
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author QmDeve
+ * @github https://github.com/QmDeve
+ * @since 2025-11-05
+ */
+
+package com.qmdeve.liquidglass.power;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Thermal and battery state read by a {@link GlassPolicy}.
+ * <p>
+ * {@link SystemPowerSource} reads the device, a fixed or scripted implementation can be passed
+ * to exercise a policy off-device.
+ */
+public interface PowerSource {
+
+    // Same values as PowerManager.THERMAL_STATUS_*, so policies also run off-device
+    int THERMAL_STATUS_NONE = 0;
+    int THERMAL_STATUS_LIGHT = 1;
+    int THERMAL_STATUS_MODERATE = 2;
+    int THERMAL_STATUS_SEVERE = 3;
+    int THERMAL_STATUS_CRITICAL = 4;
+    int THERMAL_STATUS_EMERGENCY = 5;
+    int THERMAL_STATUS_SHUTDOWN = 6;
+
+    interface Listener {
+        void onPowerStateChanged();
+    }
+
+    /**
+     * @return one of {@code THERMAL_STATUS_*}, {@code THERMAL_STATUS_NONE} when unknown
+     */
+    int getThermalStatus();
+
+    /**
+     * Forecast thermal headroom, 1.0 means the device reaches severe throttling
+     *
+     * @return float, NaN when unknown
+     */
+    float getThermalHeadroom();
+
+    boolean isPowerSaveMode();
+
+    void addListener(@NonNull Listener listener);
+
+    void removeListener(@NonNull Listener listener);
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright 2025 QmDeve
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author QmDeve
+ * @github https://github.com/QmDeve
+ * @since 2025-11-05
+ */
+
+package com.qmdeve.liquidglass.power;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.PowerManager;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RequiresApi;
+
+import java.util.ArrayList;
+
+/**
+ * Power state of the device. Thermal status is pushed by the system from API 29, the headroom
+ * forecast is polled from API 30 while anyone listens, battery saver follows its broadcast.
+ * Listeners are called on the main thread
+ */
+public final class SystemPowerSource implements PowerSource {
+
+    private static final long HEADROOM_POLL_MILLIS = 10_000;
+    private static final int HEADROOM_FORECAST_SECONDS = 10;
+
+    private static SystemPowerSource instance;
+
+    private final Context context;
+    private final PowerManager powerManager;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final ArrayList<Listener> listeners = new ArrayList<>();
+    private float headroom = Float.NaN;
+
+    // PowerManager.OnThermalStatusChangedListener exists from API 29, it is created and cast only
+    // inside ThermalListener so older releases never resolve the interface
+    Object thermalListener;
+    private final BroadcastReceiver powerSaveReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context c, Intent intent) {
+            notifyListeners();
+        }
+    };
+    private final Runnable pollHeadroom = new Runnable() {
+        @Override
+        public void run() {
+            float value = powerManager.getThermalHeadroom(HEADROOM_FORECAST_SECONDS);
+            // NaN is also returned when polled too often, keep the last forecast then
+            if (!Float.isNaN(value) && value != headroom) {
+                headroom = value;
+                notifyListeners();
+            }
+            handler.postDelayed(this, HEADROOM_POLL_MILLIS);
+        }
+    };
+
+    SystemPowerSource(Context context) {
+        this.context = context;
+        this.powerManager = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+    }
+
+    /**
+     * Process-wide instance, must be called on the main thread
+     */
+    @NonNull
+    public static SystemPowerSource get(@NonNull Context context) {
+        if (instance == null) instance = new SystemPowerSource(context.getApplicationContext());
+        return instance;
+    }
+
+    @Override
+    public int getThermalStatus() {
+        if (powerManager == null || Build.VERSION.SDK_INT < Build.VERSION_CODES.Q) {
+            return PowerManager.THERMAL_STATUS_NONE;
+        }
+        return powerManager.getCurrentThermalStatus();
+    }
+
+    @Override
+    public float getThermalHeadroom() {
+        return headroom;
+    }
+
+    @Override
+    public boolean isPowerSaveMode() {
+        return powerManager != null && powerManager.isPowerSaveMode();
+    }
+
+    @Override
+    public void addListener(@NonNull Listener listener) {
+        if (listeners.contains(listener)) return;
+        listeners.add(listener);
+        if (listeners.size() == 1) start();
+    }
+
+    @Override
+    public void removeListener(@NonNull Listener listener) {
+        if (listeners.remove(listener) && listeners.isEmpty()) stop();
+    }
+
+    private void start() {
+        if (powerManager == null) return;
+        context.registerReceiver(powerSaveReceiver, new IntentFilter(PowerManager.ACTION_POWER_SAVE_MODE_CHANGED));
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            if (thermalListener == null) thermalListener = ThermalListener.create(this::notifyListeners);
+            ThermalListener.add(context, powerManager, thermalListener);
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+            handler.post(pollHeadroom);
+        }
+    }
+
+    private void stop() {
+        if (powerManager == null) return;
+        context.unregisterReceiver(powerSaveReceiver);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && thermalListener != null) {
+            ThermalListener.remove(powerManager, thermalListener);
+        }
+        handler.removeCallbacks(pollHeadroom);
+        headroom = Float.NaN;
+    }
+
+    private void notifyListeners() {
+        for (int i = listeners.size() - 1; i >= 0; i--) {
+            listeners.get(i).onPowerStateChanged();
+        }
+    }
+
+    /**
+     * Only loaded from API 29, where the listener interface exists
+     */
+    @RequiresApi(api = Build.VERSION_CODES.Q)
+    private static final class ThermalListener {
+
+        static Object create(Runnable onChange) {
+            return (PowerManager.OnThermalStatusChangedListener) status -> onChange.run();
+        }
+
+        static void add(Context context, PowerManager powerManager, Object listener) {
+            powerManager.addThermalStatusListener(context.getMainExecutor(),
+                    (PowerManager.OnThermalStatusChangedListener) listener);
+        }
+
+        static void remove(PowerManager powerManager, Object listener) {
+            powerManager.removeThermalStatusListener((PowerManager.OnThermalStatusChangedListener) listener);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/**
+ * Copyright 2025 QmDeve
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author QmDeve
+ * @github https://github.com/QmDeve
+ * @since 2025-11-03
+ */
+
+
+package com.qmdeve.liquidglass.soft;
+
+import java.util.Arrays;
+
+/**
+ * Gaussian blur approximated by three box blur passes on packed ARGB pixels.
+ * Every pass costs the same for any radius, rows and columns are spread over the tile pool.
+ * <p>
+ * An instance keeps the box radii and the tasks of its passes, so blurring with it allocates
+ * nothing. An instance is used by one thread at a time
+ */
+public final class BoxBlur {
+
+    private static final int PASSES = 3;
+
+    private final int[] radii = new int[PASSES];
+    private final TilePool.Job job = new TilePool.Job();
+    private final TilePool.Tile horizontalPass = this::horizontalRows;
+    private final TilePool.Tile verticalPass = this::verticalColumns;
+
+    // Arguments of the pass being run
+    private int[] pixels, scratch, columnSums;
+    private int width, height, radius;
+
+    /**
+     * Blur the pixels in place
+     *
+     * @param pixels  packed ARGB, {@code width * height} values
+     * @param scratch buffer of at least the same length, overwritten
+     * @param sigma   standard deviation of the gaussian to approximate, in pixels
+     */
+    public static void blur(int[] pixels, int[] scratch, int width, int height, float sigma) {
+        new BoxBlur().apply(pixels, scratch, new int[Math.max(0, width) * 4], width, height, sigma);
+    }
+
+    /**
+     * Blur the pixels in place without allocating the per-column sums
+     *
+     * @param pixels     packed ARGB, {@code width * height} values
+     * @param scratch    buffer of at least the same length, overwritten
+     * @param columnSums buffer of at least {@code width * 4} values, overwritten
+     * @param sigma      standard deviation of the gaussian to approximate, in pixels
+     */
+    public static void blur(int[] pixels, int[] scratch, int[] columnSums, int width, int height, float sigma) {
+        new BoxBlur().apply(pixels, scratch, columnSums, width, height, sigma);
+    }
+
+    /**
+     * Blur the pixels in place, allocation free
+     *
+     * @param pixels     packed ARGB, {@code width * height} values
+     * @param scratch    buffer of at least the same length, overwritten
+     * @param columnSums buffer of at least {@code width * 4} values, overwritten
+     * @param sigma      standard deviation of the gaussian to approximate, in pixels
+     */
+    public void apply(int[] pixels, int[] scratch, int[] columnSums, int width, int height, float sigma) {
+        if (sigma < 0.5f || width <= 0 || height <= 0) return;
+        if (columnSums.length < width * 4) {
+            throw new IllegalArgumentException("Column sums too small for width " + width);
+        }
+        boxRadii(sigma, radii);
+        this.pixels = pixels;
+        this.scratch = scratch;
+        this.columnSums = columnSums;
+        this.width = width;
+        this.height = height;
+        try {
+            for (int r : radii) {
+                if (r <= 0) continue;
+                radius = r;
+                job.run(height, 16, horizontalPass);
+                job.run(width, 16, verticalPass);
+            }
+        } finally {
+            this.pixels = this.scratch = this.columnSums = null;
+        }
+    }
+
+    /**
+     * Radii of the boxes whose combined variance matches the gaussian
+     *
+     * @param out {@code PASSES} radii
+     */
+    static void boxRadii(float sigma, int[] out) {
+        double ideal = Math.sqrt(12.0 * sigma * sigma / PASSES + 1.0);
+        int lower = (int) Math.floor(ideal);
+        if (lower % 2 == 0) lower--;
+        int upper = lower + 2;
+        double mIdeal = (12.0 * sigma * sigma - PASSES * lower * lower - 4.0 * PASSES * lower - 3.0 * PASSES)
+                / (-4.0 * lower - 4.0);
+        int m = (int) Math.round(mIdeal);
+        for (int i = 0; i < PASSES; i++) {
+            out[i] = ((i < m ? lower : upper) - 1) / 2;
+        }
+    }
+
+    private void horizontalRows(int start, int end) {
+        horizontal(pixels, scratch, width, start, end, radius);
+    }
+
+    private void verticalColumns(int start, int end) {
+        vertical(scratch, pixels, columnSums, width, height, start, end, radius);
+    }
+
+    private static void horizontal(int[] in, int[] out, int width, int rowStart, int rowEnd, int radius) {
+        int size = radius * 2 + 1;
+        int mul = Math.round(65536f / size);
+        int last = width - 1;
+        for (int y = rowStart; y < rowEnd; y++) {
+            int row = y * width;
+            int sa = 0, sr = 0, sg = 0, sb = 0;
+            for (int i = -radius; i <= radius; i++) {
+                int c = in[row + clamp(i, last)];
+                sa += c >>> 24;
+                sr += (c >> 16) & 0xff;
+                sg += (c >> 8) & 0xff;
+                sb += c & 0xff;
+            }
+            for (int x = 0; x < width; x++) {
+                out[row + x] = pack(sa, sr, sg, sb, mul);
+                int add = in[row + clamp(x + radius + 1, last)];
+                int sub = in[row + clamp(x - radius, last)];
+                sa += (add >>> 24) - (sub >>> 24);
+                sr += ((add >> 16) & 0xff) - ((sub >> 16) & 0xff);
+                sg += ((add >> 8) & 0xff) - ((sub >> 8) & 0xff);
+                sb += (add & 0xff) - (sub & 0xff);
+            }
+        }
+    }
+
+    /**
+     * Walks the rows top to bottom with one running sum per column, so memory is read
+     * row by row instead of column by column. Each tile owns the slice of the sums
+     * that belongs to its columns
+     */
+    private static void vertical(int[] in, int[] out, int[] sums, int width, int height,
+                                 int colStart, int colEnd, int radius) {
+        int size = radius * 2 + 1;
+        int mul = Math.round(65536f / size);
+        int last = height - 1;
+        int cols = colEnd - colStart;
+        int first = colStart * 4;
+        Arrays.fill(sums, first, first + cols * 4, 0);
+        for (int i = -radius; i <= radius; i++) {
+            int row = clamp(i, last) * width + colStart;
+            for (int x = 0, s = first; x < cols; x++, s += 4) {
+                int c = in[row + x];
+                sums[s] += c >>> 24;
+                sums[s + 1] += (c >> 16) & 0xff;
+                sums[s + 2] += (c >> 8) & 0xff;
+                sums[s + 3] += c & 0xff;
+            }
+        }
+        for (int y = 0; y < height; y++) {
+            int row = y * width + colStart;
+            int addRow = clamp(y + radius + 1, last) * width + colStart;
+            int subRow = clamp(y - radius, last) * width + colStart;
+            for (int x = 0, s = first; x < cols; x++, s += 4) {
+                out[row + x] = pack(sums[s], sums[s + 1], sums[s + 2], sums[s + 3], mul);
+                int add = in[addRow + x];
+                int sub = in[subRow + x];
+                sums[s] += (add >>> 24) - (sub >>> 24);
+                sums[s + 1] += ((add >> 16) & 0xff) - ((sub >> 16) & 0xff);
+                sums[s + 2] += ((add >> 8) & 0xff) - ((sub >> 8) & 0xff);
+                sums[s + 3] += (add & 0xff) - (sub & 0xff);
+            }
+        }
+    }
+
+    private static int clamp(int i, int last) {
+        return i < 0 ? 0 : (i > last ? last : i);
+    }
+
+    private static int pack(int sa, int sr, int sg, int sb, int mul) {
+        int a = Math.min(255, (sa * mul + 32768) >>> 16);
+        int r = Math.min(255, (sr * mul + 32768) >>> 16);
+        int g = Math.min(255, (sg * mul + 32768) >>> 16);
+        int b = Math.min(255, (sb * mul + 32768) >>> 16);
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+}
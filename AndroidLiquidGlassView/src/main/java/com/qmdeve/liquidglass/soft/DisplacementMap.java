@@ -0,0 +1,154 @@
+/**
+ * Copyright 2025 QmDeve
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author QmDeve
+ * @github https://github.com/QmDeve
+ * @since 2025-11-03
+ */
+
+
+package com.qmdeve.liquidglass.soft;
+
+/**
+ * Per pixel displacements of the refraction and dispersion stages of the fused shader.
+ * They only depend on the shape, so they can be computed once and looked up by the shader
+ * instead of evaluating the rounded rectangle distance field for every pixel of every frame.
+ * <p>
+ * Both displacements are mirror symmetric around the center of the glass, so only the bottom
+ * right quadrant is stored and the other three are mirrored by the shader. The map is
+ * {@link #quadrantWidth} x {@code 2 * }{@link #quadrantHeight} opaque pixels, the refraction
+ * displacement in the top half and the dispersion displacement in the bottom half. Texel
+ * {@code (i, j)} holds the pixel whose center is {@code floor} distance {@code i, j} away from
+ * the center of the glass. Each displacement is stored as two 12 bit values in the 24 color
+ * bits, relative to {@link #scale}: red and the high nibble of green hold x, the low nibble of
+ * green and blue hold y
+ */
+public final class DisplacementMap {
+
+    private static final int ZERO = 2048;
+    private static final float RANGE = 2047f;
+
+    private DisplacementMap() {
+    }
+
+    /**
+     * Largest displacement the map can hold
+     */
+    public static float scale(float refractionAmount) {
+        return Math.max(1f, Math.abs(refractionAmount));
+    }
+
+    public static int quadrantWidth(int width) {
+        return (width + 1) / 2;
+    }
+
+    public static int quadrantHeight(int height) {
+        return (height + 1) / 2;
+    }
+
+    /**
+     * Compute the map, rows are spread over the tile pool
+     *
+     * @param out at least {@code quadrantWidth(width) * quadrantHeight(height) * 2} pixels
+     */
+    public static void compute(int width, int height, float cornerRadius, float refractionHeight,
+                               float refractionAmount, float eccentricFactor, float depthEffect, int[] out) {
+        int qw = quadrantWidth(width), qh = quadrantHeight(height);
+        if (out.length < qw * qh * 2) {
+            throw new IllegalArgumentException("Map buffer too small for " + width + "x" + height);
+        }
+        float scale = scale(refractionAmount);
+        TilePool.run(qh, 16, (rowStart, rowEnd) -> computeRows(width, height, cornerRadius,
+                refractionHeight, refractionAmount, eccentricFactor, depthEffect, scale, out, rowStart, rowEnd));
+    }
+
+    private static void computeRows(int width, int height, float radius, float refractionHeight,
+                                    float amount, float eccentricFactor, float depthEffect, float scale,
+                                    int[] out, int rowStart, int rowEnd) {
+        float halfX = width * 0.5f, halfY = height * 0.5f;
+        float refractionGradRadius = Math.min(radius * 1.5f, Math.max(Math.min(halfX, halfY), radius));
+        float dispersionGradRadius = Math.min(radius * 1.5f, Math.min(halfX, halfY));
+        int qw = quadrantWidth(width);
+        int dispersionRows = qw * quadrantHeight(height);
+        // Pixel centers of an even size lie half a pixel off the center, of an odd size on it
+        float centerX = (width & 1) == 0 ? 0.5f : 0f, centerY = (height & 1) == 0 ? 0.5f : 0f;
+        float[] grad = new float[2];
+
+        for (int y = rowStart; y < rowEnd; y++) {
+            float cy = y + centerY;
+            for (int x = 0; x < qw; x++) {
+                float cx = x + centerX;
+                int index = y * qw + x;
+                float sd = refractionHeight > 0f ? GlassKernel.sdRoundedRect(cx, cy, halfX, halfY, radius) : 0f;
+                float cl = GlassKernel.length(cx, cy);
+
+                // Refraction stage: gradient blended with the eccentric factor
+                float clamped = Math.min(sd, 0f);
+                if (refractionHeight > 0f && -clamped <= refractionHeight) {
+                    float d = GlassKernel.circleMap(1f - -clamped / refractionHeight) * amount;
+                    direction(cx, cy, halfX, halfY, refractionGradRadius, eccentricFactor, cl, grad);
+                    out[index] = encode(d * grad[0], d * grad[1], scale);
+                } else {
+                    out[index] = encode(0f, 0f, scale);
+                }
+
+                // Dispersion stage: gradient blended with the depth effect
+                if (refractionHeight > 0f && -sd < refractionHeight) {
+                    float d = GlassKernel.circleMap(1f - -clamped / refractionHeight) * amount;
+                    direction(cx, cy, halfX, halfY, dispersionGradRadius, depthEffect, cl, grad);
+                    out[dispersionRows + index] = encode(d * grad[0], d * grad[1], scale);
+                } else {
+                    out[dispersionRows + index] = encode(0f, 0f, scale);
+                }
+            }
+        }
+    }
+
+    /**
+     * normalize(gradSdRoundedRect + blend * normalize(centered))
+     */
+    private static void direction(float cx, float cy, float halfX, float halfY, float gradRadius,
+                                  float blend, float cl, float[] out) {
+        float ccx = Math.abs(cx) - (halfX - gradRadius), ccy = Math.abs(cy) - (halfY - gradRadius);
+        float gx, gy;
+        if (ccx >= 0f || ccy >= 0f) {
+            float mx = Math.max(ccx, 0f), my = Math.max(ccy, 0f);
+            float len = GlassKernel.length(mx, my);
+            gx = len > 0f ? Math.signum(cx) * mx / len : 0f;
+            gy = len > 0f ? Math.signum(cy) * my / len : 0f;
+        } else {
+            float gradX = ccx >= ccy ? 1f : 0f;
+            gx = Math.signum(cx) * gradX;
+            gy = Math.signum(cy) * (1f - gradX);
+        }
+        if (cl > 0f) {
+            gx += blend * cx / cl;
+            gy += blend * cy / cl;
+        }
+        float gl = GlassKernel.length(gx, gy);
+        out[0] = gl > 0f ? gx / gl : 0f;
+        out[1] = gl > 0f ? gy / gl : 0f;
+    }
+
+    static int encode(float dx, float dy, float scale) {
+        int kx = quantize(dx / scale), ky = quantize(dy / scale);
+        return 0xff000000 | (kx >> 4) << 16 | ((kx & 0xf) << 4 | ky >> 8) << 8 | (ky & 0xff);
+    }
+
+    private static int quantize(float v) {
+        int k = Math.round(v * RANGE) + ZERO;
+        return k < 1 ? 1 : (k > 4095 ? 4095 : k);
+    }
+}
@@ -0,0 +1,334 @@
+/**
+ * Copyright 2025 QmDeve
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author QmDeve
+ * @github https://github.com/QmDeve
+ * @since 2025-11-03
+ */
+
+
+package com.qmdeve.liquidglass.soft;
+
+/**
+ * CPU version of the refraction, material, dispersion and tint shaders on packed ARGB pixels.
+ * Lengths are in pixels of the buffers being processed, so a downsampled buffer needs
+ * parameters scaled by the same factor
+ */
+final class GlassKernel {
+
+    private static final float[] TO_LINEAR = new float[256];
+    private static final float[] FROM_LINEAR = new float[4097];
+
+    // Color and tap of the pixel being shaded, one pair per tile thread
+    private static final ThreadLocal<float[][]> PIXEL = new ThreadLocal<float[][]>() {
+        @Override
+        protected float[][] initialValue() {
+            return new float[][]{new float[4], new float[4]};
+        }
+    };
+
+    static {
+        for (int i = 0; i < TO_LINEAR.length; i++) {
+            TO_LINEAR[i] = toLinear(i / 255f);
+        }
+        for (int i = 0; i < FROM_LINEAR.length; i++) {
+            FROM_LINEAR[i] = fromLinear(i / 4096f);
+        }
+    }
+
+    float width, height, cornerRadius, refractionHeight, refractionAmount, eccentricFactor;
+    float depthEffect, chromaticAberration;
+    int dispersionTaps = 1;
+    boolean adaptiveTaps;
+    float contrast, whitePoint, chromaMultiplier = 1f;
+    float tintRed, tintGreen, tintBlue, tintAlpha;
+
+    /**
+     * Refraction followed by the material adjustments
+     *
+     * @param src    blurred source, covering the glass plus {@code margin} pixels on every side
+     * @param dst    output, {@code dstWidth} pixels per row
+     */
+    void refract(int[] src, int srcWidth, int srcHeight, int margin,
+                 int[] dst, int dstWidth, int rowStart, int rowEnd) {
+        float[] color = PIXEL.get()[0];
+        float halfX = width * 0.5f, halfY = height * 0.5f;
+        float maxGradRadius = Math.max(Math.min(halfX, halfY), cornerRadius);
+        float gradRadius = Math.min(cornerRadius * 1.5f, maxGradRadius);
+        boolean material = contrast != 0f || whitePoint != 0f || chromaMultiplier != 1f;
+
+        for (int y = rowStart; y < rowEnd; y++) {
+            float py = y + 0.5f;
+            for (int x = 0; x < dstWidth; x++) {
+                float px = x + 0.5f;
+                float sx = px, sy = py;
+                boolean black = false;
+                if (refractionHeight > 0f) {
+                    float cx = px - halfX, cy = py - halfY;
+                    float sd = Math.min(sdRoundedRectangle(cx, cy, halfX, halfY, cornerRadius), 0f);
+                    if (-sd <= refractionHeight) {
+                        float innerX = halfX - gradRadius, innerY = halfY - gradRadius;
+                        float ccx = Math.abs(cx) - innerX, ccy = Math.abs(cy) - innerY;
+                        float nx, ny;
+                        if (ccx >= 0f && ccy >= 0f) {
+                            float len = length(ccx, ccy);
+                            nx = len > 0f ? Math.signum(cx) * ccx / len : 0f;
+                            ny = len > 0f ? Math.signum(cy) * ccy / len : 0f;
+                        } else if (-ccx < -ccy) {
+                            nx = Math.signum(cx);
+                            ny = 0f;
+                        } else {
+                            nx = 0f;
+                            ny = Math.signum(cy);
+                        }
+                        float cl = length(cx, cy);
+                        if (cl > 0f) {
+                            nx += eccentricFactor * cx / cl;
+                            ny += eccentricFactor * cy / cl;
+                        }
+                        float nl = length(nx, ny);
+                        float distance = circleMap(1f - -sd / refractionHeight) * refractionAmount;
+                        if (nl > 0f) {
+                            sx = px + distance * nx / nl;
+                            sy = py + distance * ny / nl;
+                        }
+                        black = sx < 0f || sx >= width || sy < 0f || sy >= height;
+                    }
+                }
+
+                if (black) {
+                    color[0] = 1f;
+                    color[1] = color[2] = color[3] = 0f;
+                } else {
+                    sample(src, srcWidth, srcHeight, sx + margin, sy + margin, color);
+                    if (material) material(color);
+                }
+                dst[y * dstWidth + x] = pack(color);
+            }
+        }
+    }
+
+    /**
+     * Dispersion followed by the tint
+     *
+     * @param src output of {@link #refract}, same size as {@code dst}
+     */
+    void disperse(int[] src, int[] dst, int w, int h, int rowStart, int rowEnd) {
+        float[][] pixel = PIXEL.get();
+        float[] color = pixel[0];
+        float[] tap = pixel[1];
+        float halfX = width * 0.5f, halfY = height * 0.5f;
+        float radius = cornerRadius;
+        float gradRadius = Math.min(radius * 1.5f, Math.min(halfX, halfY));
+        boolean enabled = refractionHeight > 0f;
+
+        for (int y = rowStart; y < rowEnd; y++) {
+            float py = y + 0.5f;
+            for (int x = 0; x < w; x++) {
+                float px = x + 0.5f;
+                float cx = px - halfX, cy = py - halfY;
+                float sd = enabled ? sdRoundedRect(cx, cy, halfX, halfY, radius) : 0f;
+                if (!enabled || -sd >= refractionHeight) {
+                    int c = src[y * w + x];
+                    unpack(c, color);
+                } else {
+                    sd = Math.min(sd, 0f);
+                    float d = circleMap(1f - -sd / refractionHeight) * refractionAmount;
+
+                    float ccx = Math.abs(cx) - (halfX - gradRadius), ccy = Math.abs(cy) - (halfY - gradRadius);
+                    float gx, gy;
+                    if (ccx >= 0f || ccy >= 0f) {
+                        float mx = Math.max(ccx, 0f), my = Math.max(ccy, 0f);
+                        float len = length(mx, my);
+                        gx = len > 0f ? Math.signum(cx) * mx / len : 0f;
+                        gy = len > 0f ? Math.signum(cy) * my / len : 0f;
+                    } else {
+                        float gradX = ccx >= ccy ? 1f : 0f;
+                        gx = Math.signum(cx) * gradX;
+                        gy = Math.signum(cy) * (1f - gradX);
+                    }
+                    float cl = length(cx, cy);
+                    if (cl > 0f) {
+                        gx += depthEffect * cx / cl;
+                        gy += depthEffect * cy / cl;
+                    }
+                    float gl = length(gx, gy);
+                    if (gl > 0f) {
+                        gx /= gl;
+                        gy /= gl;
+                    }
+
+                    float rx = px + d * gx, ry = py + d * gy;
+                    float intensity = chromaticAberration * ((cx * cy) / (halfX * halfY));
+                    float dx = d * gx * intensity, dy = d * gy * intensity;
+
+                    int taps = dispersionTaps;
+                    if (adaptiveTaps) {
+                        float spread = length(dx, dy);
+                        if (spread < 0.5f) taps = 1;
+                        else if (spread < 2f) taps = Math.min(taps, 3);
+                    }
+
+                    if (taps < 2) {
+                        sample(src, w, h, rx, ry, color);
+                    } else if (taps < 4) {
+                        sample(src, w, h, rx + dx * (3f / 7f), ry + dy * (3f / 7f), tap);
+                        float r = tap[1], a = tap[0];
+                        sample(src, w, h, rx, ry, tap);
+                        float g = tap[2];
+                        a += tap[0];
+                        sample(src, w, h, rx - dx * (2f / 3f), ry - dy * (2f / 3f), tap);
+                        color[0] = (a + tap[0]) / 3f;
+                        color[1] = r;
+                        color[2] = g;
+                        color[3] = tap[3];
+                    } else {
+                        color[0] = color[1] = color[2] = color[3] = 0f;
+                        sample(src, w, h, rx + dx, ry + dy, tap);
+                        color[1] += tap[1] / 3.5f;
+                        color[0] += tap[0] / 7f;
+                        sample(src, w, h, rx + dx * (2f / 3f), ry + dy * (2f / 3f), tap);
+                        color[1] += tap[1] / 3.5f;
+                        color[2] += tap[2] / 7f;
+                        color[0] += tap[0] / 7f;
+                        sample(src, w, h, rx + dx * (1f / 3f), ry + dy * (1f / 3f), tap);
+                        color[1] += tap[1] / 3.5f;
+                        color[2] += tap[2] / 3.5f;
+                        color[0] += tap[0] / 7f;
+                        sample(src, w, h, rx, ry, tap);
+                        color[2] += tap[2] / 3.5f;
+                        color[0] += tap[0] / 7f;
+                        sample(src, w, h, rx - dx * (1f / 3f), ry - dy * (1f / 3f), tap);
+                        color[2] += tap[2] / 3.5f;
+                        color[3] += tap[3] / 3f;
+                        color[0] += tap[0] / 7f;
+                        sample(src, w, h, rx - dx * (2f / 3f), ry - dy * (2f / 3f), tap);
+                        color[3] += tap[3] / 3f;
+                        color[0] += tap[0] / 7f;
+                        sample(src, w, h, rx - dx, ry - dy, tap);
+                        color[1] += tap[1] / 7f;
+                        color[3] += tap[3] / 3f;
+                        color[0] += tap[0] / 7f;
+                    }
+                }
+
+                if (tintAlpha != 0f) {
+                    color[1] += (tintRed - color[1]) * tintAlpha;
+                    color[2] += (tintGreen - color[2]) * tintAlpha;
+                    color[3] += (tintBlue - color[3]) * tintAlpha;
+                }
+                dst[y * w + x] = pack(color);
+            }
+        }
+    }
+
+    private void material(float[] color) {
+        if (chromaMultiplier != 1f) {
+            float r = TO_LINEAR[channel(color[1])];
+            float g = TO_LINEAR[channel(color[2])];
+            float b = TO_LINEAR[channel(color[3])];
+            float luma = 0.2126f * r + 0.7152f * g + 0.0722f * b;
+            color[1] = encode(luma + (r - luma) * chromaMultiplier);
+            color[2] = encode(luma + (g - luma) * chromaMultiplier);
+            color[3] = encode(luma + (b - luma) * chromaMultiplier);
+        }
+        if (whitePoint != 0f) {
+            float target = whitePoint > 0f ? 1f : 0f;
+            float amount = Math.abs(whitePoint);
+            for (int i = 1; i < 4; i++) {
+                color[i] += (target - color[i]) * amount;
+            }
+        }
+        if (contrast != 0f) {
+            for (int i = 1; i < 4; i++) {
+                color[i] = (color[i] - 0.5f) * (1f + contrast) + 0.5f;
+            }
+        }
+    }
+
+    /**
+     * Bilinear sample with clamped edges, {@code (u, v)} in pixel units with pixel centers at .5
+     *
+     * @param out alpha, red, green, blue in 0..1
+     */
+    static void sample(int[] buffer, int w, int h, float u, float v, float[] out) {
+        float fx = u - 0.5f, fy = v - 0.5f;
+        int x0 = (int) Math.floor(fx), y0 = (int) Math.floor(fy);
+        float tx = fx - x0, ty = fy - y0;
+        int xa = clamp(x0, w - 1), xb = clamp(x0 + 1, w - 1);
+        int ya = clamp(y0, h - 1) * w, yb = clamp(y0 + 1, h - 1) * w;
+        int c00 = buffer[ya + xa], c10 = buffer[ya + xb], c01 = buffer[yb + xa], c11 = buffer[yb + xb];
+        float w00 = (1f - tx) * (1f - ty), w10 = tx * (1f - ty), w01 = (1f - tx) * ty, w11 = tx * ty;
+        for (int i = 0, shift = 24; i < 4; i++, shift -= 8) {
+            out[i] = (((c00 >>> shift) & 0xff) * w00 + ((c10 >>> shift) & 0xff) * w10
+                    + ((c01 >>> shift) & 0xff) * w01 + ((c11 >>> shift) & 0xff) * w11) / 255f;
+        }
+    }
+
+    static void unpack(int c, float[] out) {
+        out[0] = (c >>> 24) / 255f;
+        out[1] = ((c >> 16) & 0xff) / 255f;
+        out[2] = ((c >> 8) & 0xff) / 255f;
+        out[3] = (c & 0xff) / 255f;
+    }
+
+    static int pack(float[] c) {
+        return (channel(c[0]) << 24) | (channel(c[1]) << 16) | (channel(c[2]) << 8) | channel(c[3]);
+    }
+
+    private static int channel(float v) {
+        int i = (int) (v * 255f + 0.5f);
+        return i < 0 ? 0 : (i > 255 ? 255 : i);
+    }
+
+    private static int clamp(int i, int last) {
+        return i < 0 ? 0 : (i > last ? last : i);
+    }
+
+    static float length(float x, float y) {
+        return (float) Math.sqrt(x * x + y * y);
+    }
+
+    static float circleMap(float x) {
+        return 1f - (float) Math.sqrt(1f - x * x);
+    }
+
+    private static float sdRoundedRectangle(float x, float y, float halfX, float halfY, float r) {
+        float dx = Math.abs(x) - (halfX - r), dy = Math.abs(y) - (halfY - r);
+        float outside = length(Math.max(dx, 0f), Math.max(dy, 0f));
+        float inside = Math.min(Math.max(dx, dy), 0f);
+        return outside + inside - r;
+    }
+
+    static float sdRoundedRect(float x, float y, float halfX, float halfY, float r) {
+        float dx = Math.abs(x) - (halfX - r), dy = Math.abs(y) - (halfY - r);
+        float outside = length(Math.max(dx, 0f), Math.max(dy, 0f)) - r;
+        float inside = Math.min(Math.max(dx, dy), 0f);
+        return outside + inside;
+    }
+
+    private static float encode(float linear) {
+        if (linear >= 0f && linear <= 1f) return FROM_LINEAR[(int) (linear * 4096f + 0.5f)];
+        return linear < 0f ? -fromLinear(-linear) : fromLinear(linear);
+    }
+
+    private static float toLinear(float v) {
+        return v <= 0.04045f ? v / 12.92f : (float) Math.pow((v + 0.055f) / 1.055f, 2.4);
+    }
+
+    private static float fromLinear(float v) {
+        return v <= 0.0031308f ? v * 12.92f : 1.055f * (float) Math.pow(v, 1 / 2.4) - 0.055f;
+    }
+}
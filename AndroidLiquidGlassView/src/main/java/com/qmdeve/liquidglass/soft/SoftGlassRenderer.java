@@ -0,0 +1,231 @@
+/**
+ * Copyright 2025 QmDeve
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author QmDeve
+ * @github https://github.com/QmDeve
+ * @since 2025-11-03
+ */
+
+
+package com.qmdeve.liquidglass.soft;
+
+/**
+ * Renders the glass on the CPU: blur, refraction, material, dispersion and tint on packed ARGB
+ * pixel buffers, with the rows spread over a small thread pool.
+ * <p>
+ * The glass is rendered at a reduced resolution. When a frame takes longer than the frame budget
+ * the next one is rendered at half the resolution, and the resolution is raised again after a
+ * run of frames that finished well within the budget. Callers read {@link #getScale()} and the
+ * buffer sizes before capturing the source of every frame.
+ * <p>
+ * Not thread safe, use one renderer per glass from a single thread.
+ */
+public final class SoftGlassRenderer {
+
+    private static final float[] SCALES = {1f, 0.5f, 0.25f, 0.125f};
+    private static final int RAISE_AFTER_FRAMES = 30;
+
+    private final GlassKernel kernel = new GlassKernel();
+    private final BoxBlur blur = new BoxBlur();
+    private final TilePool.Job job = new TilePool.Job();
+    private final TilePool.Tile refractRows = this::refractRows;
+    private final TilePool.Tile disperseRows = this::disperseRows;
+    private float width, height, cornerRadius, refractionHeight, refractionOffset, eccentricFactor = 1f;
+    private float blurRadius;
+
+    private int level = 1, minLevel;
+    private long frameBudgetNanos = 8_000_000L;
+    private long lastRenderNanos;
+    private int fastFrames;
+
+    private int[] scratch, refracted, columnSums;
+
+    // Buffers and sizes of the frame being rendered
+    private int[] source, output;
+    private int sourceWidth, sourceHeight, outputWidth, outputHeight, margin;
+
+    /**
+     * @param width            glass width in pixels
+     * @param height           glass height in pixels
+     * @param refractionOffset refraction amount, negative values pull the rim inwards
+     */
+    public void setShape(float width, float height, float cornerRadius,
+                         float refractionHeight, float refractionOffset, float eccentricFactor) {
+        this.width = width;
+        this.height = height;
+        this.cornerRadius = cornerRadius;
+        this.refractionHeight = refractionHeight;
+        this.refractionOffset = refractionOffset;
+        this.eccentricFactor = eccentricFactor;
+    }
+
+    public void setBlurRadius(float radius) {
+        blurRadius = Math.max(0f, radius);
+    }
+
+    public void setMaterial(float contrast, float whitePoint, float chromaMultiplier) {
+        kernel.contrast = contrast;
+        kernel.whitePoint = whitePoint;
+        kernel.chromaMultiplier = chromaMultiplier;
+    }
+
+    /**
+     * @param taps     maximum samples per pixel, 1, 3 or 7
+     * @param adaptive lower the samples per pixel where the colors barely separate
+     */
+    public void setDispersion(float dispersion, float depthEffect, int taps, boolean adaptive) {
+        kernel.chromaticAberration = dispersion;
+        kernel.depthEffect = depthEffect;
+        kernel.dispersionTaps = taps;
+        kernel.adaptiveTaps = adaptive;
+    }
+
+    public void setTint(float red, float green, float blue, float alpha) {
+        kernel.tintRed = red;
+        kernel.tintGreen = green;
+        kernel.tintBlue = blue;
+        kernel.tintAlpha = alpha;
+    }
+
+    /**
+     * Time a frame may take before the resolution is lowered
+     *
+     * @param nanos long
+     */
+    public void setFrameBudget(long nanos) {
+        frameBudgetNanos = Math.max(1L, nanos);
+    }
+
+    /**
+     * Highest resolution the renderer may use
+     *
+     * @param scale 1, 0.5, 0.25 or 0.125
+     */
+    public void setMaxScale(float scale) {
+        minLevel = SCALES.length - 1;
+        for (int i = 0; i < SCALES.length; i++) {
+            if (SCALES[i] <= scale) {
+                minLevel = i;
+                break;
+            }
+        }
+        level = Math.max(level, minLevel);
+    }
+
+    /**
+     * Resolution of the next frame relative to the glass size
+     */
+    public float getScale() {
+        return SCALES[level];
+    }
+
+    public int getOutputWidth() {
+        return Math.max(1, (int) Math.ceil(width * getScale()));
+    }
+
+    public int getOutputHeight() {
+        return Math.max(1, (int) Math.ceil(height * getScale()));
+    }
+
+    /**
+     * Source pixels needed on every side of the glass for the blur, at the current scale
+     */
+    public int getMargin() {
+        return (int) Math.ceil(3f * blurRadius * getScale()) + 1;
+    }
+
+    /**
+     * @return duration of the last frame, including the capture time passed to it
+     */
+    public long getLastRenderNanos() {
+        return lastRenderNanos;
+    }
+
+    /**
+     * Render one frame at the current scale
+     *
+     * @param source the source under the glass at the current scale, extended by
+     *               {@link #getMargin()} pixels on every side; blurred in place
+     * @param output {@link #getOutputWidth()} x {@link #getOutputHeight()} pixels
+     */
+    public void render(int[] source, int[] output) {
+        render(source, output, 0L);
+    }
+
+    /**
+     * @param captureNanos time already spent on this frame producing the source, counted
+     *                     against the frame budget together with the rendering
+     */
+    public void render(int[] source, int[] output, long captureNanos) {
+        long start = System.nanoTime() - Math.max(0L, captureNanos);
+        float scale = getScale();
+        int w = getOutputWidth(), h = getOutputHeight(), margin = getMargin();
+        int sw = w + 2 * margin, sh = h + 2 * margin;
+        if (source.length < sw * sh || output.length < w * h) {
+            throw new IllegalArgumentException("Buffers too small for " + w + "x" + h + " at margin " + margin);
+        }
+
+        if (scratch == null || scratch.length < sw * sh) scratch = new int[sw * sh];
+        if (refracted == null || refracted.length < w * h) refracted = new int[w * h];
+        if (columnSums == null || columnSums.length < sw * 4) columnSums = new int[sw * 4];
+
+        kernel.width = width * scale;
+        kernel.height = height * scale;
+        kernel.cornerRadius = cornerRadius * scale;
+        kernel.refractionHeight = refractionHeight * scale;
+        kernel.refractionAmount = refractionOffset * scale;
+        kernel.eccentricFactor = eccentricFactor;
+
+        blur.apply(source, scratch, columnSums, sw, sh, blurRadius * scale);
+        this.source = source;
+        this.output = output;
+        sourceWidth = sw;
+        sourceHeight = sh;
+        outputWidth = w;
+        outputHeight = h;
+        this.margin = margin;
+        try {
+            job.run(h, 8, refractRows);
+            job.run(h, 8, disperseRows);
+        } finally {
+            this.source = this.output = null;
+        }
+
+        lastRenderNanos = System.nanoTime() - start;
+        adapt();
+    }
+
+    private void refractRows(int rowStart, int rowEnd) {
+        kernel.refract(source, sourceWidth, sourceHeight, margin, refracted, outputWidth, rowStart, rowEnd);
+    }
+
+    private void disperseRows(int rowStart, int rowEnd) {
+        kernel.disperse(refracted, output, outputWidth, outputHeight, rowStart, rowEnd);
+    }
+
+    private void adapt() {
+        if (lastRenderNanos > frameBudgetNanos) {
+            fastFrames = 0;
+            if (level < SCALES.length - 1) level++;
+        } else if (lastRenderNanos < frameBudgetNanos / 3 && level > minLevel) {
+            if (++fastFrames >= RAISE_AFTER_FRAMES) {
+                fastFrames = 0;
+                level--;
+            }
+        } else {
+            fastFrames = 0;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/**
+ * Copyright 2025 QmDeve
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author QmDeve
+ * @github https://github.com/QmDeve
+ * @since 2025-11-03
+ */
+
+
+package com.qmdeve.liquidglass.soft;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded pool running one range of rows or columns per worker, the calling thread takes
+ * the first range itself and waits for the others.
+ * <p>
+ * Each worker thread parks on a single task slot instead of a queue, so handing it a range
+ * allocates nothing. A busy worker is skipped and the caller runs that range itself
+ */
+final class TilePool {
+
+    interface Tile {
+        void run(int start, int end);
+    }
+
+    static final int THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+
+    private static final long KEEP_ALIVE_NANOS = TimeUnit.SECONDS.toNanos(2);
+    private static final Runnable RETIRED = () -> {
+    };
+    private static final WorkerThread[] threads = new WorkerThread[THREADS];
+
+    private TilePool() {
+    }
+
+    /**
+     * Hand the task to the worker thread at {@code index}, starting a new one if it is gone
+     *
+     * @return false when the worker is busy and the caller has to run the task
+     */
+    private static boolean submit(int index, Runnable task) {
+        WorkerThread thread = thread(index);
+        if (!thread.task.compareAndSet(null, task)) return false;
+        LockSupport.unpark(thread);
+        return true;
+    }
+
+    private static synchronized WorkerThread thread(int index) {
+        WorkerThread thread = threads[index];
+        if (thread == null || thread.task.get() == RETIRED) {
+            thread = new WorkerThread();
+            thread.start();
+            threads[index] = thread;
+        }
+        return thread;
+    }
+
+    /**
+     * Split {@code [0, count)} into at most {@code THREADS + 1} ranges and run them in parallel.
+     * Allocates the bookkeeping of the run, per frame work should use a {@link Job}
+     *
+     * @param minRange smallest range worth handing to another thread
+     */
+    static void run(int count, int minRange, Tile tile) {
+        new Job().run(count, minRange, tile);
+    }
+
+    /**
+     * Reusable run whose worker tasks are allocated once, so running it allocates nothing.
+     * A job is run by one thread at a time
+     */
+    static final class Job {
+
+        private final Worker[] workers = new Worker[THREADS];
+        private final AtomicInteger pending = new AtomicInteger();
+        private volatile Thread waiter;
+        private volatile Throwable failure;
+
+        Job() {
+            for (int i = 0; i < workers.length; i++) {
+                workers[i] = new Worker();
+            }
+        }
+
+        /**
+         * @param minRange smallest range worth handing to another thread
+         */
+        void run(int count, int minRange, Tile tile) {
+            int tiles = Math.min(THREADS + 1, Math.max(1, count / Math.max(1, minRange)));
+            if (tiles == 1) {
+                tile.run(0, count);
+                return;
+            }
+
+            int step = (count + tiles - 1) / tiles;
+            waiter = Thread.currentThread();
+            failure = null;
+            pending.set(tiles - 1);
+            for (int i = 1; i < tiles; i++) {
+                Worker worker = workers[i - 1];
+                worker.tile = tile;
+                worker.start = i * step;
+                worker.end = Math.min(count, worker.start + step);
+                if (!submit(i - 1, worker)) worker.run();
+            }
+            try {
+                tile.run(0, Math.min(count, step));
+            } finally {
+                // Workers write into the caller's buffers, never return while one is still running
+                awaitWorkers();
+                for (Worker worker : workers) worker.tile = null;
+                waiter = null;
+            }
+
+            Throwable f = failure;
+            failure = null;
+            if (f instanceof RuntimeException) throw (RuntimeException) f;
+            if (f != null) throw (Error) f;
+        }
+
+        private void awaitWorkers() {
+            boolean interrupted = false;
+            while (pending.get() != 0) {
+                LockSupport.park(this);
+                if (Thread.interrupted()) interrupted = true;
+            }
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+
+        private final class Worker implements Runnable {
+            Tile tile;
+            int start, end;
+
+            @Override
+            public void run() {
+                try {
+                    if (start < end) tile.run(start, end);
+                } catch (RuntimeException | Error e) {
+                    failure = e;
+                } finally {
+                    if (pending.decrementAndGet() == 0) LockSupport.unpark(waiter);
+                }
+            }
+        }
+    }
+
+    private static final class WorkerThread extends Thread {
+
+        final AtomicReference<Runnable> task = new AtomicReference<>();
+
+        WorkerThread() {
+            super("LiquidGlass-tile");
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            long idleSince = System.nanoTime();
+            while (true) {
+                Runnable r = task.get();
+                if (r != null) {
+                    // Only this thread clears the slot, free it first so the next range can be queued
+                    task.set(null);
+                    r.run();
+                    idleSince = System.nanoTime();
+                } else if (System.nanoTime() - idleSince < KEEP_ALIVE_NANOS) {
+                    LockSupport.parkNanos(this, KEEP_ALIVE_NANOS);
+                } else if (task.compareAndSet(null, RETIRED)) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -20,7 +20,9 @@
 
 package com.qmdeve.liquidglass.util;
 
+import android.app.Activity;
 import android.content.Context;
+import android.content.ContextWrapper;
 import android.content.res.Resources;
 import android.graphics.Rect;
 import android.os.Build;
@@ -45,6 +47,14 @@ public class Utils {
         return dm.widthPixels;
     }
 
+    public static Activity findActivity(Context context) {
+        while (context instanceof ContextWrapper) {
+            if (context instanceof Activity) return (Activity) context;
+            context = ((ContextWrapper) context).getBaseContext();
+        }
+        return null;
+    }
+
     public static float dp2px(Resources resources, float value) {
         if (value == 0) {
             return 0;
@@ -0,0 +1,94 @@
+/**
+ * Copyright 2025 QmDeve
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author QmDeve
+ * @github https://github.com/QmDeve
+ * @since 2025-11-03
+ */
+
+package com.qmdeve.liquidglass.widget;
+
+/**
+ * Coalesces parameter changes into one update on the next frame. Changes made between
+ * {@link #begin()} and the matching {@link #end()} are only scheduled once the outermost
+ * batch ends. Plain Java so the coalescing can be tested without a device
+ */
+final class ConfigBatch {
+
+    /**
+     * Posts and removes the frame callback that ends up calling {@link #onFrame()}
+     */
+    interface Scheduler {
+        void schedule();
+
+        void cancel();
+    }
+
+    private final Scheduler scheduler;
+    private final Runnable update;
+    private int depth;
+    private boolean changed, scheduled;
+
+    /**
+     * @param update applies every change made since the last frame
+     */
+    ConfigBatch(Scheduler scheduler, Runnable update) {
+        this.scheduler = scheduler;
+        this.update = update;
+    }
+
+    void begin() {
+        depth++;
+    }
+
+    void end() {
+        if (depth > 0) depth--;
+        if (depth == 0 && changed) schedule();
+    }
+
+    /**
+     * A parameter changed, schedule the update unless one is pending or a batch is open
+     */
+    void changed() {
+        changed = true;
+        if (depth == 0) schedule();
+    }
+
+    /**
+     * Drop the pending update, e.g. because the glass is rebuilt from scratch anyway
+     */
+    void cancel() {
+        if (scheduled) scheduler.cancel();
+        scheduled = false;
+        changed = false;
+    }
+
+    boolean isScheduled() {
+        return scheduled;
+    }
+
+    void onFrame() {
+        if (!scheduled) return;
+        scheduled = false;
+        changed = false;
+        update.run();
+    }
+
+    private void schedule() {
+        if (scheduled) return;
+        scheduled = true;
+        scheduler.schedule();
+    }
+}
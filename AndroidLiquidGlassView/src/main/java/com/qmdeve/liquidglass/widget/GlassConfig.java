@@ -0,0 +1,84 @@
+/**
+ * Copyright 2025 QmDeve
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author QmDeve
+ * @github https://github.com/QmDeve
+ * @since 2025-11-06
+ */
+
+package com.qmdeve.liquidglass.widget;
+
+import com.qmdeve.liquidglass.GlassParams;
+import com.qmdeve.liquidglass.QualityTier;
+
+/**
+ * Parameters set on a LiquidGlassView, turned into a {@link GlassParams} snapshot once per
+ * frame through a single reused builder. An unchanged configuration returns the current
+ * snapshot, a changed one allocates only the new snapshot. Plain Java so the update path
+ * can be tested without a device
+ */
+final class GlassConfig {
+
+    /**
+     * The glass the parameters are applied to
+     */
+    interface Target {
+        GlassParams getParams();
+
+        /**
+         * Called on every apply, with the current snapshot itself when nothing changed
+         */
+        void setParams(GlassParams params);
+    }
+
+    float cornerRadius, refractionHeight, refractionOffset;
+    float tintAlpha, tintColorRed = 1f, tintColorGreen = 1f, tintColorBlue = 1f;
+    float blurRadius = 0.01f, dispersion = 0.5f;
+    int dispersionQuality = GlassParams.DISPERSION_QUALITY_AUTO;
+    boolean fusedShader, splitRim, blurDownsample, displacementMap;
+
+    private final GlassParams.Builder builder = new GlassParams.Builder();
+
+    /**
+     * Hand the parameters to the glass, what LiquidGlassView does once per frame after changes
+     */
+    void apply(Target target, QualityTier tier, int width, int height) {
+        target.setParams(build(target.getParams(), tier, width, height));
+    }
+
+    /**
+     * @param current snapshot of the glass, values the view does not set are kept
+     * @param tier    quality tier capping the configured quality
+     * @return {@code current} itself when nothing changed
+     */
+    GlassParams build(GlassParams current, QualityTier tier, int width, int height) {
+        return builder.set(current)
+                .blurRadius(blurRadius)
+                .cornerRadius(cornerRadius)
+                .refractionHeight(refractionHeight)
+                .refractionOffset(refractionOffset)
+                .tintAlpha(tintAlpha)
+                .tintColor(tintColorRed, tintColorGreen, tintColorBlue)
+                .dispersion(dispersion)
+                .dispersionQuality(tier.capDispersionQuality(dispersionQuality))
+                .maxDispersionQuality(tier.maxDispersionQuality)
+                .fusedShader(fusedShader)
+                .splitRim(splitRim)
+                .blurDownsample(blurDownsample || tier.blurDownsample)
+                .displacementMap(displacementMap)
+                .size(width, height)
+                .build();
+    }
+}
@@ -23,22 +23,70 @@ package com.qmdeve.liquidglass.widget;
 import android.annotation.SuppressLint;
 import android.content.Context;
 import android.util.AttributeSet;
+import android.view.Choreographer;
 import android.view.ViewGroup;
 import android.widget.FrameLayout;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import com.qmdeve.liquidglass.LiquidGlass;
 import com.qmdeve.liquidglass.Config;
+import com.qmdeve.liquidglass.GlassMetrics;
+import com.qmdeve.liquidglass.GlassParams;
+import com.qmdeve.liquidglass.LiquidGlass;
+import com.qmdeve.liquidglass.QualityGovernor;
+import com.qmdeve.liquidglass.QualityTier;
+import com.qmdeve.liquidglass.power.DefaultGlassPolicy;
+import com.qmdeve.liquidglass.power.GlassPolicy;
+import com.qmdeve.liquidglass.power.PowerSource;
+import com.qmdeve.liquidglass.power.SystemPowerSource;
 import com.qmdeve.liquidglass.util.Utils;
 
+
 public class LiquidGlassView extends FrameLayout {
 
     private LiquidGlass glass;
     private ViewGroup customSource;
     private final Context context;
-    private float cornerRadius = Utils.dp2px(getResources(), 40), refractionHeight = Utils.dp2px(getResources(), 20), refractionOffset = -Utils.dp2px(getResources(), 70), tintAlpha = 0.0f, tintColorRed = 1.0f, tintColorGreen = 1.0f, tintColorBlue = 1.0f, blurRadius = 0.01f, dispersion = 0.5f, downX, downY, startTx, startTy;
+    private final GlassConfig values = new GlassConfig();
+    private final GlassConfig.Target paramsTarget = new GlassConfig.Target() {
+        @Override
+        public GlassParams getParams() {
+            return glass.getParams();
+        }
+
+        @Override
+        public void setParams(GlassParams params) {
+            glass.setParams(params);
+        }
+    };
+    private float downX, downY, startTx, startTy;
     private boolean draggable = true;
+    private final Choreographer.FrameCallback configCallback = frameTimeNanos -> onConfigFrame();
+    private final ConfigBatch config = new ConfigBatch(new ConfigBatch.Scheduler() {
+        @Override
+        public void schedule() {
+            Choreographer.getInstance().postFrameCallback(configCallback);
+        }
+
+        @Override
+        public void cancel() {
+            Choreographer.getInstance().removeFrameCallback(configCallback);
+        }
+    }, this::applyConfig);
+    private final Runnable ensureGlass = this::ensureGlass;
+    private GlassMetrics.Listener metricsListener;
+    private long metricsIntervalMillis;
+    private final QualityGovernor governor = new QualityGovernor();
+    private QualityGovernor.Listener qualityListener;
+    private boolean adaptiveQuality;
+    private GlassPolicy powerPolicy = new DefaultGlassPolicy();
+    private PowerSource powerSource;
+    private int powerLevel = GlassPolicy.LEVEL_FULL;
+    private final PowerSource.Listener powerListener = this::evaluatePowerPolicy;
+    private boolean snapshotMode;
+    private float snapshotScale = 1f;
+    private boolean outputCache, scrollAware;
 
     public LiquidGlassView(Context context) {
         super(context);
@@ -62,8 +110,16 @@ public class LiquidGlassView extends FrameLayout {
     }
 
     private void init() {
+        values.cornerRadius = Utils.dp2px(getResources(), 40);
+        values.refractionHeight = Utils.dp2px(getResources(), 20);
+        values.refractionOffset = -Utils.dp2px(getResources(), 70);
         setClipToPadding(false);
         setClipChildren(false);
+        governor.setListener((index, tier) -> {
+            if (!adaptiveQuality) return;
+            applyQualityTier();
+            if (qualityListener != null) qualityListener.onQualityChanged(index, tier);
+        });
     }
 
     /**
@@ -93,7 +149,7 @@ public class LiquidGlassView extends FrameLayout {
     @Deprecated(since = "v0.0.1-alpha02", forRemoval = true)
     public void setCornerRadiusPx(float px) {
         float maxPx = Utils.dp2px(getResources(), 99);
-        this.cornerRadius = Math.max(0, Math.min(px, maxPx));
+        values.cornerRadius = Math.max(0, Math.min(px, maxPx));
         updateConfig();
     }
 
@@ -104,7 +160,7 @@ public class LiquidGlassView extends FrameLayout {
      */
     public void setCornerRadius(float px) {
         float maxPx = Utils.dp2px(getResources(), 99);
-        this.cornerRadius = Math.max(0, Math.min(px, maxPx));
+        values.cornerRadius = Math.max(0, Math.min(px, maxPx));
         updateConfig();
     }
 
@@ -124,7 +180,7 @@ public class LiquidGlassView extends FrameLayout {
     public void setRefractionHeightPx(float px) {
         float minPx = Utils.dp2px(getResources(), 12);
         float maxPx = Utils.dp2px(getResources(), 50);
-        this.refractionHeight = Math.max(minPx, Math.min(maxPx, px));
+        values.refractionHeight = Math.max(minPx, Math.min(maxPx, px));
         updateConfig();
     }
 
@@ -136,7 +192,7 @@ public class LiquidGlassView extends FrameLayout {
     public void setRefractionHeight(float px) {
         float minPx = Utils.dp2px(getResources(), 12);
         float maxPx = Utils.dp2px(getResources(), 50);
-        this.refractionHeight = Math.max(minPx, Math.min(maxPx, px));
+        values.refractionHeight = Math.max(minPx, Math.min(maxPx, px));
         updateConfig();
     }
 
@@ -158,7 +214,7 @@ public class LiquidGlassView extends FrameLayout {
         float minPx = Utils.dp2px(getResources(), 20);
         float maxPx = Utils.dp2px(getResources(), 120);
         px = Math.max(minPx, Math.min(maxPx, px));
-        this.refractionOffset = -px;
+        values.refractionOffset = -px;
         updateConfig();
     }
 
@@ -172,7 +228,7 @@ public class LiquidGlassView extends FrameLayout {
         float minPx = Utils.dp2px(getResources(), 20);
         float maxPx = Utils.dp2px(getResources(), 120);
         px = Math.max(minPx, Math.min(maxPx, px));
-        this.refractionOffset = -px;
+        values.refractionOffset = -px;
         updateConfig();
     }
 
@@ -182,7 +238,7 @@ public class LiquidGlassView extends FrameLayout {
      * @param red float (0f-1f)
      */
     public void setTintColorRed(float red) {
-        this.tintColorRed = red;
+        values.tintColorRed = red;
         updateConfig();
     }
 
@@ -192,7 +248,7 @@ public class LiquidGlassView extends FrameLayout {
      * @param green float (0f-1f)
      */
     public void setTintColorGreen(float green) {
-        this.tintColorGreen = green;
+        values.tintColorGreen = green;
         updateConfig();
     }
 
@@ -202,7 +258,7 @@ public class LiquidGlassView extends FrameLayout {
      * @param blue float (0f-1f)
      */
     public void setTintColorBlue(float blue) {
-        this.tintColorBlue = blue;
+        values.tintColorBlue = blue;
         updateConfig();
     }
 
@@ -212,7 +268,7 @@ public class LiquidGlassView extends FrameLayout {
      * @param alpha float (0f-1f)
      */
     public void setTintAlpha(float alpha) {
-        this.tintAlpha = alpha;
+        values.tintAlpha = alpha;
         updateConfig();
     }
 
@@ -222,7 +278,23 @@ public class LiquidGlassView extends FrameLayout {
      * @param dispersion float (0f-1f)
      */
     public void setDispersion(float dispersion) {
-        this.dispersion = Math.max(0f, Math.min(1f, dispersion));
+        values.dispersion = Math.max(0f, Math.min(1f, dispersion));
+        updateConfig();
+    }
+
+    /**
+     * Set the number of dispersion samples per pixel,
+     * {@link GlassParams#DISPERSION_QUALITY_AUTO} picks 1, 3 or 7 from the dispersion strength
+     *
+     * @param quality one of {@code GlassParams.DISPERSION_QUALITY_*}
+     */
+    public void setDispersionQuality(int quality) {
+        if (quality != GlassParams.DISPERSION_QUALITY_LOW
+                && quality != GlassParams.DISPERSION_QUALITY_MEDIUM
+                && quality != GlassParams.DISPERSION_QUALITY_HIGH) {
+            quality = GlassParams.DISPERSION_QUALITY_AUTO;
+        }
+        values.dispersionQuality = quality;
         updateConfig();
     }
 
@@ -232,7 +304,51 @@ public class LiquidGlassView extends FrameLayout {
      * @param radius float
      */
     public void setBlurRadius(float radius) {
-        this.blurRadius = Math.max(0.01f, Math.min(50, radius));
+        values.blurRadius = Math.max(0.01f, Math.min(50, radius));
+        updateConfig();
+    }
+
+    /**
+     * Blur the sampling source at a reduced resolution chosen from the blur radius,
+     * so large radii cost about as much as small ones
+     *
+     * @param enable boolean
+     */
+    public void setBlurDownsample(boolean enable) {
+        values.blurDownsample = enable;
+        updateConfig();
+    }
+
+    /**
+     * Render the glass in a single fused shader pass after the blur instead of the
+     * multi-stage effect chain. Fewer passes, slightly different dispersion at the rim
+     *
+     * @param enable boolean
+     */
+    public void setFusedShader(boolean enable) {
+        values.fusedShader = enable;
+        updateConfig();
+    }
+
+    /**
+     * Render the rim band and the interior separately, so only the rim runs
+     * refraction and dispersion. Recommended for large panels
+     *
+     * @param enable boolean
+     */
+    public void setSplitRim(boolean enable) {
+        values.splitRim = enable;
+        updateConfig();
+    }
+
+    /**
+     * Look the refraction up in a map computed once per shape instead of evaluating it
+     * for every pixel of every frame. Recommended for glass with a fixed size
+     *
+     * @param enable boolean
+     */
+    public void setDisplacementMap(boolean enable) {
+        values.displacementMap = enable;
         updateConfig();
     }
 
@@ -245,40 +361,373 @@ public class LiquidGlassView extends FrameLayout {
         this.draggable = enable;
     }
 
+    /**
+     * Sample the source from a snapshot taken once instead of replaying it every frame,
+     * for sources that rarely change such as a hero image. A new snapshot is taken when the
+     * source invalidates or on {@link #invalidateBackdrop()}
+     *
+     * @param enable boolean
+     */
+    public void setSnapshotMode(boolean enable) {
+        setSnapshotMode(enable, snapshotScale);
+    }
+
+    /**
+     * @param enable boolean
+     * @param scale  resolution of the snapshot relative to the source, e.g. 0.5f
+     */
+    public void setSnapshotMode(boolean enable, float scale) {
+        snapshotMode = enable;
+        snapshotScale = scale;
+        if (glass != null) glass.setSnapshotMode(enable, scale);
+    }
+
+    /**
+     * Reuse the finished glass while the backdrop, the parameters and the size are unchanged,
+     * so animated content inside the glass does not run the effects every frame. Costs a bitmap
+     * the size of the glass, enable it for glass with animated content on a static backdrop
+     *
+     * @param enable boolean, false by default
+     */
+    public void setOutputCache(boolean enable) {
+        outputCache = enable;
+        if (glass != null) glass.setOutputCache(enable);
+    }
+
+    /**
+     * Follow a scrolling source by shifting the recording instead of recording the source every
+     * scroll frame. For a ScrollView, NestedScrollView or RecyclerView bound with {@link #bind(ViewGroup)}
+     *
+     * @param enable boolean
+     */
+    public void setScrollAwareCapture(boolean enable) {
+        scrollAware = enable;
+        if (glass != null) glass.setScrollAwareCapture(enable);
+    }
+
+    /**
+     * Force the sampling source to be recorded again on the next frame, and the snapshot to be
+     * taken again in snapshot mode. Only needed for content changes that do not invalidate the
+     * source view
+     */
+    public void invalidateBackdrop() {
+        if (glass != null) glass.invalidateBackdrop();
+    }
+
+    /**
+     * Lower the rendering quality step by step while frames miss their deadline, and raise it
+     * again once there is headroom. Off by default
+     *
+     * @param enable boolean
+     */
+    public void setAdaptiveQuality(boolean enable) {
+        if (adaptiveQuality == enable) return;
+        adaptiveQuality = enable;
+        governor.reset();
+        if (enable && isAttachedToWindow()) {
+            governor.attach(this);
+        } else {
+            governor.detach();
+        }
+        applyQualityTier();
+    }
+
+    /**
+     * Ladder walked by the adaptive quality, ordered from full quality down
+     *
+     * @param tiers QualityTier, at least one
+     */
+    public void setQualityTiers(@NonNull QualityTier... tiers) {
+        governor.setTiers(tiers);
+    }
+
+    /**
+     * Tier currently rendered with, the lower of the adaptive quality tier and the floor set
+     * by the power policy. {@link QualityTier#FULL} when neither lowers the quality
+     *
+     * @return QualityTier
+     */
+    @NonNull
+    public QualityTier getQualityTier() {
+        int index = getQualityTierIndex();
+        return index == 0 && !adaptiveQuality ? QualityTier.FULL : governor.getTier(index);
+    }
+
+    /**
+     * Position of the current tier in the ladder, 0 is full quality
+     *
+     * @return int
+     */
+    public int getQualityTierIndex() {
+        int index = adaptiveQuality ? governor.getTierIndex() : 0;
+        int last = governor.getTierCount() - 1;
+        if (powerLevel >= GlassPolicy.LEVEL_MINIMAL) return last;
+        if (powerLevel == GlassPolicy.LEVEL_REDUCED) return Math.max(index, (last + 1) / 2);
+        return index;
+    }
+
+    /**
+     * Policy deciding how much work the glass may do under the thermal and battery state,
+     * null to always render as configured.
+     * <p>
+     * On by default: {@link DefaultGlassPolicy} lowers the quality tier under light or moderate
+     * throttling and battery saver, and draws a static tinted fill under severe throttling.
+     * The glass recovers when the device cools down
+     *
+     * @param policy GlassPolicy, {@link DefaultGlassPolicy} by default
+     */
+    public void setPowerPolicy(@Nullable GlassPolicy policy) {
+        powerPolicy = policy;
+        evaluatePowerPolicy();
+    }
+
+    /**
+     * Replace where the power state is read from, {@link SystemPowerSource} by default
+     *
+     * @param source PowerSource
+     */
+    public void setPowerSource(@NonNull PowerSource source) {
+        if (powerSource != null && isAttachedToWindow()) powerSource.removeListener(powerListener);
+        powerSource = source;
+        if (isAttachedToWindow()) source.addListener(powerListener);
+        evaluatePowerPolicy();
+    }
+
+    /**
+     * @return one of {@code GlassPolicy.LEVEL_*}
+     */
+    public int getPowerLevel() {
+        return powerLevel;
+    }
+
+    private PowerSource powerSource() {
+        if (powerSource == null) powerSource = SystemPowerSource.get(getContext());
+        return powerSource;
+    }
+
+    private void evaluatePowerPolicy() {
+        int level = powerPolicy != null
+                ? powerPolicy.evaluate(powerSource(), powerLevel)
+                : GlassPolicy.LEVEL_FULL;
+        if (level == powerLevel) return;
+        powerLevel = level;
+        if (glass != null) glass.setStaticFallback(level == GlassPolicy.LEVEL_STATIC);
+        applyQualityTier();
+    }
+
+    public void setOnQualityChangeListener(@Nullable QualityGovernor.Listener listener) {
+        qualityListener = listener;
+    }
+
+    private void applyQualityTier() {
+        if (glass != null) glass.setQualityTier(getQualityTier());
+        updateConfig();
+    }
+
+    /**
+     * Copy the current metrics of the glass. Counters start over when the glass is rebuilt,
+     * e.g. after the view was detached
+     *
+     * @param out GlassMetrics to fill
+     * @return out
+     */
+    @NonNull
+    public GlassMetrics getMetrics(@NonNull GlassMetrics out) {
+        if (glass != null) return glass.getMetrics(out);
+        out.reset();
+        return out;
+    }
+
+    /**
+     * Receive the metrics of the glass at most once per interval while it is drawn
+     *
+     * @param listener       GlassMetrics.Listener, null to stop
+     * @param intervalMillis minimum time between two callbacks
+     */
+    public void setMetricsListener(@Nullable GlassMetrics.Listener listener, long intervalMillis) {
+        metricsListener = listener;
+        metricsIntervalMillis = intervalMillis;
+        if (glass != null) glass.setMetricsListener(listener, intervalMillis);
+    }
+
+    /**
+     * Change several parameters at once. The changes are kept in the editor until
+     * {@link Editor#apply()} is called, an editor that is never applied changes nothing
+     *
+     * @return Editor
+     */
+    public Editor edit() {
+        return new Editor();
+    }
+
+    /**
+     * Batch of parameter changes, applied as a single rebuild on the next frame
+     */
+    public final class Editor {
+
+        private static final int CORNER_RADIUS = 1, REFRACTION_HEIGHT = 1 << 1, REFRACTION_OFFSET = 1 << 2,
+                TINT_COLOR = 1 << 3, TINT_ALPHA = 1 << 4, DISPERSION = 1 << 5, DISPERSION_QUALITY = 1 << 6,
+                BLUR_RADIUS = 1 << 7, BLUR_DOWNSAMPLE = 1 << 8, FUSED_SHADER = 1 << 9, SPLIT_RIM = 1 << 10,
+                DISPLACEMENT_MAP = 1 << 11;
+
+        private int changes;
+        private float cornerRadius, refractionHeight, refractionOffset, tintColorRed, tintColorGreen,
+                tintColorBlue, tintAlpha, dispersion, blurRadius;
+        private int dispersionQuality;
+        private boolean blurDownsample, fusedShader, splitRim, displacementMap;
+
+        private Editor() {
+        }
+
+        public Editor cornerRadius(float px) {
+            cornerRadius = px;
+            changes |= CORNER_RADIUS;
+            return this;
+        }
+
+        public Editor refractionHeight(float px) {
+            refractionHeight = px;
+            changes |= REFRACTION_HEIGHT;
+            return this;
+        }
+
+        public Editor refractionOffset(float px) {
+            refractionOffset = px;
+            changes |= REFRACTION_OFFSET;
+            return this;
+        }
+
+        public Editor tintColor(float red, float green, float blue) {
+            tintColorRed = red;
+            tintColorGreen = green;
+            tintColorBlue = blue;
+            changes |= TINT_COLOR;
+            return this;
+        }
+
+        public Editor tintAlpha(float alpha) {
+            tintAlpha = alpha;
+            changes |= TINT_ALPHA;
+            return this;
+        }
+
+        public Editor dispersion(float dispersion) {
+            this.dispersion = dispersion;
+            changes |= DISPERSION;
+            return this;
+        }
+
+        public Editor dispersionQuality(int quality) {
+            dispersionQuality = quality;
+            changes |= DISPERSION_QUALITY;
+            return this;
+        }
+
+        public Editor blurRadius(float radius) {
+            blurRadius = radius;
+            changes |= BLUR_RADIUS;
+            return this;
+        }
+
+        public Editor blurDownsample(boolean enable) {
+            blurDownsample = enable;
+            changes |= BLUR_DOWNSAMPLE;
+            return this;
+        }
+
+        public Editor fusedShader(boolean enable) {
+            fusedShader = enable;
+            changes |= FUSED_SHADER;
+            return this;
+        }
+
+        public Editor splitRim(boolean enable) {
+            splitRim = enable;
+            changes |= SPLIT_RIM;
+            return this;
+        }
+
+        public Editor displacementMap(boolean enable) {
+            displacementMap = enable;
+            changes |= DISPLACEMENT_MAP;
+            return this;
+        }
+
+        /**
+         * Make all changes of this editor and schedule a single rebuild for them.
+         * The editor is empty afterwards and can be reused for the next batch
+         */
+        public void apply() {
+            int c = changes;
+            changes = 0;
+            config.begin();
+            try {
+                if ((c & CORNER_RADIUS) != 0) setCornerRadius(cornerRadius);
+                if ((c & REFRACTION_HEIGHT) != 0) setRefractionHeight(refractionHeight);
+                if ((c & REFRACTION_OFFSET) != 0) setRefractionOffset(refractionOffset);
+                if ((c & TINT_COLOR) != 0) {
+                    setTintColorRed(tintColorRed);
+                    setTintColorGreen(tintColorGreen);
+                    setTintColorBlue(tintColorBlue);
+                }
+                if ((c & TINT_ALPHA) != 0) setTintAlpha(tintAlpha);
+                if ((c & DISPERSION) != 0) setDispersion(dispersion);
+                if ((c & DISPERSION_QUALITY) != 0) setDispersionQuality(dispersionQuality);
+                if ((c & BLUR_RADIUS) != 0) setBlurRadius(blurRadius);
+                if ((c & BLUR_DOWNSAMPLE) != 0) setBlurDownsample(blurDownsample);
+                if ((c & FUSED_SHADER) != 0) setFusedShader(fusedShader);
+                if ((c & SPLIT_RIM) != 0) setSplitRim(splitRim);
+                if ((c & DISPLACEMENT_MAP) != 0) setDisplacementMap(displacementMap);
+            } finally {
+                config.end();
+            }
+        }
+    }
+
+    /**
+     * Schedule one rebuild on the next frame, further changes before that frame
+     * are picked up by the same rebuild
+     */
     private void updateConfig() {
         if (glass == null) {
             rebuild();
             return;
         }
+        config.changed();
+    }
+
+    private void onConfigFrame() {
+        config.onFrame();
+    }
+
+    /**
+     * Hand the parameters to the glass, the effects are rebuilt when it draws next
+     */
+    private void applyConfig() {
+        if (glass == null) return;
 
         int w = getWidth();
         int h = getHeight();
         if (w <= 0) w = Utils.getDeviceWidthPx(context);
         if (h <= 0) h = getResources().getDisplayMetrics().heightPixels;
 
-        Config.CORNER_RADIUS_PX = cornerRadius;
-        Config.REFRACTION_HEIGHT = refractionHeight;
-        Config.REFRACTION_OFFSET = refractionOffset;
-        Config.BLUR_RADIUS = blurRadius;
-        Config.WIDTH = w;
-        Config.HEIGHT = h;
-        Config.DISPERSION = dispersion;
-        Config.TINT_ALPHA = tintAlpha;
-        Config.TINT_COLOR_BLUE = tintColorBlue;
-        Config.TINT_COLOR_GREEN = tintColorGreen;
-        Config.TINT_COLOR_RED = tintColorRed;
-
-        glass.post(() -> glass.updateParameters());
+        values.apply(paramsTarget, getQualityTier(), w, h);
     }
 
     @Override
     protected void onAttachedToWindow() {
         super.onAttachedToWindow();
-        post(this::ensureGlass);
+        if (adaptiveQuality) governor.attach(this);
+        powerSource().addListener(powerListener);
+        evaluatePowerPolicy();
+        removeCallbacks(ensureGlass);
+        post(ensureGlass);
     }
 
     @Override
     protected void onDetachedFromWindow() {
+        governor.detach();
+        powerSource().removeListener(powerListener);
         removeGlass();
         super.onDetachedFromWindow();
     }
@@ -288,14 +737,19 @@ public class LiquidGlassView extends FrameLayout {
         super.onSizeChanged(w, h, oldw, oldh);
         if (w != oldw || h != oldh) {
             if (w > 0 && h > 0) {
-                rebuild();
+                if (glass != null) {
+                    updateConfig();
+                } else {
+                    rebuild();
+                }
             }
         }
     }
 
     private void rebuild() {
         removeGlass();
-        post(this::ensureGlass);
+        removeCallbacks(ensureGlass);
+        post(ensureGlass);
     }
 
     private void ensureGlass() {
@@ -306,24 +760,14 @@ public class LiquidGlassView extends FrameLayout {
         if (w <= 0) w = Utils.getDeviceWidthPx(context);
         if (h <= 0) h = getResources().getDisplayMetrics().heightPixels;
 
-        Config.configure(new Config.Overrides()
-                .noFilter()
-                .contrast(0f)
-                .whitePoint(0f)
-                .chromaMultiplier(1f)
-                .blurRadius(blurRadius)
-                .cornerRadius(cornerRadius)
-                .refractionHeight(refractionHeight)
-                .refractionOffset(refractionOffset)
-                .tintAlpha(tintAlpha)
-                .tintColorRed(tintColorRed)
-                .tintColorGreen(tintColorGreen)
-                .tintColorBlue(tintColorBlue)
-                .dispersion(dispersion)
-                .size(w, h)
-        );
-
         glass = new LiquidGlass(getContext());
+        glass.setParams(buildParams(w, h));
+        glass.setMetricsListener(metricsListener, metricsIntervalMillis);
+        glass.setQualityTier(getQualityTier());
+        glass.setStaticFallback(powerLevel == GlassPolicy.LEVEL_STATIC);
+        glass.setSnapshotMode(snapshotMode, snapshotScale);
+        glass.setOutputCache(outputCache);
+        glass.setScrollAwareCapture(scrollAware);
 
         LayoutParams lp = new LayoutParams(
                 ViewGroup.LayoutParams.MATCH_PARENT,
@@ -338,7 +782,16 @@ public class LiquidGlassView extends FrameLayout {
         glass.init(source);
     }
 
+    @SuppressWarnings("deprecation")
+    private GlassParams buildParams(int w, int h) {
+        GlassParams current = glass != null
+                ? glass.getParams()
+                : Config.toParams().buildUpon().noFilter().build();
+        return values.build(current, getQualityTier(), w, h);
+    }
+
     private void removeGlass() {
+        config.cancel();
         if (glass != null) {
             ViewGroup p = (ViewGroup) glass.getParent();
             if (p != null) p.removeView(glass);
@@ -0,0 +1,152 @@
+/**
+ * Copyright 2025 QmDeve
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author QmDeve
+ * @github https://github.com/QmDeve
+ * @since 2025-11-05
+ */
+
+package com.qmdeve.liquidglass.power;
+
+import static com.qmdeve.liquidglass.power.GlassPolicy.LEVEL_FULL;
+import static com.qmdeve.liquidglass.power.GlassPolicy.LEVEL_MINIMAL;
+import static com.qmdeve.liquidglass.power.GlassPolicy.LEVEL_REDUCED;
+import static com.qmdeve.liquidglass.power.GlassPolicy.LEVEL_STATIC;
+import static org.junit.Assert.assertEquals;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Test;
+
+/**
+ * Levels of the default policy for every thermal status, battery saver state and headroom
+ * forecast, read from a fake power source
+ */
+public class DefaultGlassPolicyTest {
+
+    private final DefaultGlassPolicy policy = new DefaultGlassPolicy();
+    private final FakePowerSource source = new FakePowerSource();
+
+    @Test
+    public void followsTheThermalStatus() {
+        int[] expected = {LEVEL_FULL, LEVEL_REDUCED, LEVEL_MINIMAL, LEVEL_STATIC, LEVEL_STATIC, LEVEL_STATIC, LEVEL_STATIC};
+        for (int status = PowerSource.THERMAL_STATUS_NONE; status <= PowerSource.THERMAL_STATUS_SHUTDOWN; status++) {
+            source.thermalStatus = status;
+            assertEquals("status " + status, expected[status], policy.evaluate(source, LEVEL_FULL));
+        }
+    }
+
+    @Test
+    public void batterySaverCapsEveryThermalStatusAtMinimal() {
+        int[] expected = {LEVEL_MINIMAL, LEVEL_MINIMAL, LEVEL_MINIMAL, LEVEL_STATIC, LEVEL_STATIC, LEVEL_STATIC, LEVEL_STATIC};
+        source.powerSaveMode = true;
+        for (int status = PowerSource.THERMAL_STATUS_NONE; status <= PowerSource.THERMAL_STATUS_SHUTDOWN; status++) {
+            source.thermalStatus = status;
+            assertEquals("status " + status, expected[status], policy.evaluate(source, LEVEL_FULL));
+        }
+    }
+
+    @Test
+    public void followsTheHeadroomForecast() {
+        assertHeadroom(Float.NaN, LEVEL_FULL, LEVEL_FULL);
+        assertHeadroom(0.5f, LEVEL_FULL, LEVEL_FULL);
+        assertHeadroom(0.7f, LEVEL_FULL, LEVEL_REDUCED);
+        assertHeadroom(0.85f, LEVEL_FULL, LEVEL_MINIMAL);
+        assertHeadroom(1.0f, LEVEL_FULL, LEVEL_STATIC);
+        assertHeadroom(1.4f, LEVEL_FULL, LEVEL_STATIC);
+    }
+
+    @Test
+    public void headroomLevelsRecoverOnlyBelowTheMargin() {
+        assertHeadroom(0.68f, LEVEL_REDUCED, LEVEL_REDUCED);
+        assertHeadroom(0.64f, LEVEL_REDUCED, LEVEL_FULL);
+        assertHeadroom(0.82f, LEVEL_MINIMAL, LEVEL_MINIMAL);
+        assertHeadroom(0.79f, LEVEL_MINIMAL, LEVEL_REDUCED);
+        assertHeadroom(0.97f, LEVEL_STATIC, LEVEL_STATIC);
+        assertHeadroom(0.9f, LEVEL_STATIC, LEVEL_MINIMAL);
+        // Without the level already reached, the plain thresholds apply
+        assertHeadroom(0.68f, LEVEL_FULL, LEVEL_FULL);
+    }
+
+    @Test
+    public void theWorstOfStatusHeadroomAndBatterySaverWins() {
+        source.thermalStatus = PowerSource.THERMAL_STATUS_LIGHT;
+        source.headroom = 0.9f;
+        assertEquals(LEVEL_MINIMAL, policy.evaluate(source, LEVEL_FULL));
+
+        source.thermalStatus = PowerSource.THERMAL_STATUS_SEVERE;
+        source.headroom = 0.5f;
+        assertEquals(LEVEL_STATIC, policy.evaluate(source, LEVEL_FULL));
+    }
+
+    @Test
+    public void recoversWhenTheDeviceCoolsDown() {
+        int level = LEVEL_FULL;
+        source.thermalStatus = PowerSource.THERMAL_STATUS_SEVERE;
+        source.headroom = 1.1f;
+        source.powerSaveMode = true;
+        level = policy.evaluate(source, level);
+        assertEquals(LEVEL_STATIC, level);
+
+        source.thermalStatus = PowerSource.THERMAL_STATUS_MODERATE;
+        source.headroom = 0.9f;
+        level = policy.evaluate(source, level);
+        assertEquals(LEVEL_MINIMAL, level);
+
+        source.thermalStatus = PowerSource.THERMAL_STATUS_NONE;
+        source.headroom = 0.4f;
+        level = policy.evaluate(source, level);
+        assertEquals(LEVEL_MINIMAL, level);
+
+        source.powerSaveMode = false;
+        level = policy.evaluate(source, level);
+        assertEquals(LEVEL_FULL, level);
+    }
+
+    private void assertHeadroom(float headroom, int currentLevel, int expected) {
+        source.headroom = headroom;
+        assertEquals("headroom " + headroom + " from level " + currentLevel,
+                expected, policy.evaluate(source, currentLevel));
+    }
+
+    private static final class FakePowerSource implements PowerSource {
+        int thermalStatus = THERMAL_STATUS_NONE;
+        float headroom = Float.NaN;
+        boolean powerSaveMode;
+
+        @Override
+        public int getThermalStatus() {
+            return thermalStatus;
+        }
+
+        @Override
+        public float getThermalHeadroom() {
+            return headroom;
+        }
+
+        @Override
+        public boolean isPowerSaveMode() {
+            return powerSaveMode;
+        }
+
+        @Override
+        public void addListener(@NonNull Listener listener) {
+        }
+
+        @Override
+        public void removeListener(@NonNull Listener listener) {
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright 2025 QmDeve
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author QmDeve
+ * @github https://github.com/QmDeve
+ * @since 2025-11-05
+ */
+
+package com.qmdeve.liquidglass.power;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.os.Build;
+
+import org.junit.Test;
+
+/**
+ * The system source on releases before API 29, where the thermal listener interface does not
+ * exist. Unit tests run with {@code Build.VERSION.SDK_INT} 0
+ */
+public class SystemPowerSourceTest {
+
+    @Test
+    public void doesNotCreateTheThermalListenerBeforeQ() {
+        assumeTrue(Build.VERSION.SDK_INT < Build.VERSION_CODES.Q);
+        SystemPowerSource source = new SystemPowerSource(new TestContext());
+        PowerSource.Listener listener = () -> {
+        };
+        source.addListener(listener);
+        assertNull(source.thermalListener);
+
+        assertEquals(PowerSource.THERMAL_STATUS_NONE, source.getThermalStatus());
+        assertTrue(Float.isNaN(source.getThermalHeadroom()));
+        assertFalse(source.isPowerSaveMode());
+        source.removeListener(listener);
+        assertNull(source.thermalListener);
+    }
+
+    /**
+     * Context without system services, like a device that has no power manager
+     */
+    private static final class TestContext extends ContextWrapper {
+
+        TestContext() {
+            super(null);
+        }
+
+        @Override
+        public Context getApplicationContext() {
+            return this;
+        }
+
+        @Override
+        public Object getSystemService(String name) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright 2025 QmDeve
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author QmDeve
+ * @github https://github.com/QmDeve
+ * @since 2025-11-03
+ */
+
+
+package com.qmdeve.liquidglass.reference;
+
+import static org.junit.Assert.assertEquals;
+
+import com.qmdeve.liquidglass.soft.DisplacementMap;
+
+import org.junit.Test;
+
+/**
+ * The quadrant map, mirrored like the shader mirrors it, against the refraction evaluated
+ * for every pixel of the glass
+ */
+public class DisplacementMapTest {
+
+    @Test
+    public void evenSize() {
+        assertMatchesRefraction(120, 80);
+    }
+
+    @Test
+    public void oddSize() {
+        assertMatchesRefraction(121, 81);
+    }
+
+    @Test
+    public void pill() {
+        ReferenceShaders.Params p = Fixtures.params();
+        p.width = 200;
+        p.height = 48;
+        p.cornerRadius = 24f;
+        assertMatchesRefraction(p);
+    }
+
+    private static void assertMatchesRefraction(int width, int height) {
+        ReferenceShaders.Params p = Fixtures.params();
+        p.width = width;
+        p.height = height;
+        assertMatchesRefraction(p);
+    }
+
+    private static void assertMatchesRefraction(ReferenceShaders.Params p) {
+        int w = (int) p.width, h = (int) p.height;
+        int[] map = GoldenImageTest.map(p);
+        float scale = DisplacementMap.scale(p.refractionAmount);
+        // Half a quantization step, plus float noise
+        float tolerance = scale / 2047f * 0.5f + 1e-4f;
+        float[] expected = new float[2];
+        float[] actual = new float[2];
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                ReferenceShaders.refractionShift(p, x + 0.5f, y + 0.5f, expected);
+                ReferenceShaders.displacementAt(map, w, h, scale, x + 0.5f, y + 0.5f, false, actual);
+                assertEquals(x + "," + y, expected[0], actual[0], tolerance);
+                assertEquals(x + "," + y, expected[1], actual[1], tolerance);
+            }
+        }
+    }
+}
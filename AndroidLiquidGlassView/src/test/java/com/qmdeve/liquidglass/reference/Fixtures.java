@@ -0,0 +1,122 @@
+/**
+ * Copyright 2025 QmDeve
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author QmDeve
+ * @github https://github.com/QmDeve
+ * @since 2025-11-03
+ */
+
+
+package com.qmdeve.liquidglass.reference;
+
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Backdrop, parameters and golden image handling shared by the reference tests
+ */
+final class Fixtures {
+
+    static final int WIDTH = 120, HEIGHT = 80;
+
+    private Fixtures() {
+    }
+
+    /**
+     * Checkerboard over color gradients, hard edges show every displacement
+     */
+    static FloatImage backdrop() {
+        int[] argb = new int[WIDTH * HEIGHT];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                boolean light = ((x / 10) + (y / 10) & 1) == 0;
+                int r = light ? 230 : 30 + x;
+                int g = y * 255 / (HEIGHT - 1);
+                int b = light ? 255 - x * 255 / (WIDTH - 1) : 40;
+                argb[y * WIDTH + x] = 0xff000000 | r << 16 | g << 8 | b;
+            }
+        }
+        return FloatImage.fromArgb(argb, WIDTH, HEIGHT);
+    }
+
+    /**
+     * Proportions of the default style, with every stage enabled
+     */
+    static ReferenceShaders.Params params() {
+        ReferenceShaders.Params p = new ReferenceShaders.Params();
+        p.width = WIDTH;
+        p.height = HEIGHT;
+        p.cornerRadius = 28f;
+        p.refractionHeight = 14f;
+        p.refractionAmount = -24f;
+        p.chromaticAberration = 0.5f;
+        p.contrast = 0.1f;
+        p.whitePoint = 0.05f;
+        p.chromaMultiplier = 1.2f;
+        p.tintRed = 1f;
+        p.tintGreen = 1f;
+        p.tintBlue = 1f;
+        p.tintAlpha = 0.1f;
+        p.blurRadius = 1.5f;
+        return p;
+    }
+
+    static int[] argb(FloatImage image) {
+        int[] out = new int[image.width * image.height];
+        image.toArgb(out);
+        return out;
+    }
+
+    /**
+     * Average difference of all channels between two packed ARGB images, 0..255
+     */
+    static double meanDifference(int[] a, int[] b) {
+        long sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            for (int shift = 0; shift < 32; shift += 8) {
+                sum += Math.abs(((a[i] >>> shift) & 0xff) - ((b[i] >>> shift) & 0xff));
+            }
+        }
+        return sum / (a.length * 4.0);
+    }
+
+    /**
+     * Compare against {@code golden/<name>.png}, or write it when run with {@code golden.update}
+     *
+     * @param tolerance largest accepted difference of any channel, 0..255
+     */
+    static void assertGolden(String name, FloatImage image, int tolerance) throws IOException {
+        int[] actual = argb(image);
+        File file = new File(System.getProperty("golden.dir", "src/test/resources/golden"), name + ".png");
+        if (Boolean.getBoolean("golden.update")) {
+            BufferedImage out = new BufferedImage(image.width, image.height, BufferedImage.TYPE_INT_ARGB);
+            out.setRGB(0, 0, image.width, image.height, actual, 0, image.width);
+            ImageIO.write(out, "png", file);
+            return;
+        }
+
+        assertTrue("Missing golden image " + file + ", run with -Pgolden.update=true", file.isFile());
+        BufferedImage golden = ImageIO.read(file);
+        assertTrue(name + " changed size", golden.getWidth() == image.width && golden.getHeight() == image.height);
+        int[] expected = golden.getRGB(0, 0, image.width, image.height, null, 0, image.width);
+        int difference = ReferenceShaders.maxDifference(expected, actual, actual.length);
+        assertTrue(name + " differs from the golden image by " + difference, difference <= tolerance);
+    }
+}
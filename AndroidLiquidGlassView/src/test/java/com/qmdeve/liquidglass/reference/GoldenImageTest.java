@@ -0,0 +1,78 @@
+/**
+ * Copyright 2025 QmDeve
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author QmDeve
+ * @github https://github.com/QmDeve
+ * @since 2025-11-03
+ */
+
+
+package com.qmdeve.liquidglass.reference;
+
+import com.qmdeve.liquidglass.soft.DisplacementMap;
+
+import org.junit.Test;
+
+/**
+ * Output of every path of the reference against committed golden images, so a change to the
+ * port or to the map encoding shows up as a failing test. Regenerate with
+ * {@code ./gradlew :AndroidLiquidGlassView:testDebugUnitTest -Pgolden.update=true} after an intended change
+ */
+public class GoldenImageTest {
+
+    // Float math is deterministic, the tolerance only covers Math.pow and Math.exp differences
+    private static final int TOLERANCE = 1;
+
+    @Test
+    public void chain() throws Exception {
+        Fixtures.assertGolden("chain", ReferenceShaders.render(Fixtures.backdrop(), Fixtures.params()), TOLERANCE);
+    }
+
+    @Test
+    public void chainThreeTaps() throws Exception {
+        ReferenceShaders.Params p = Fixtures.params();
+        p.dispersionTaps = 3;
+        Fixtures.assertGolden("chain-3-taps", ReferenceShaders.render(Fixtures.backdrop(), p), TOLERANCE);
+    }
+
+    @Test
+    public void chainOneTap() throws Exception {
+        ReferenceShaders.Params p = Fixtures.params();
+        p.dispersionTaps = 1;
+        Fixtures.assertGolden("chain-1-tap", ReferenceShaders.render(Fixtures.backdrop(), p), TOLERANCE);
+    }
+
+    @Test
+    public void fused() throws Exception {
+        ReferenceShaders.Params p = Fixtures.params();
+        FloatImage blurred = ReferenceShaders.clamp(ReferenceShaders.blur(Fixtures.backdrop(), p.blurRadius));
+        Fixtures.assertGolden("fused", ReferenceShaders.fused(blurred, p), TOLERANCE);
+    }
+
+    @Test
+    public void displacementMap() throws Exception {
+        ReferenceShaders.Params p = Fixtures.params();
+        FloatImage blurred = ReferenceShaders.clamp(ReferenceShaders.blur(Fixtures.backdrop(), p.blurRadius));
+        Fixtures.assertGolden("displacement-map", ReferenceShaders.displacement(blurred, p, map(p)), TOLERANCE);
+    }
+
+    static int[] map(ReferenceShaders.Params p) {
+        int w = (int) p.width, h = (int) p.height;
+        int[] map = new int[DisplacementMap.quadrantWidth(w) * DisplacementMap.quadrantHeight(h) * 2];
+        DisplacementMap.compute(w, h, p.cornerRadius, p.refractionHeight, p.refractionAmount,
+                p.eccentricFactor, p.depthEffect, map);
+        return map;
+    }
+}
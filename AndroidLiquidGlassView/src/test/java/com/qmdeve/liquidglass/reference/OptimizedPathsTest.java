@@ -0,0 +1,113 @@
+/**
+ * Copyright 2025 QmDeve
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author QmDeve
+ * @github https://github.com/QmDeve
+ * @since 2025-11-03
+ */
+
+
+package com.qmdeve.liquidglass.reference;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+/**
+ * Optimized paths against the effect chain. The single pass shaders sample the blurred backdrop
+ * once per tap instead of resampling the refracted layer, so they differ along hard edges; the
+ * bounds below hold for the fixture backdrop and catch a wrong sign, offset or stage order
+ */
+public class OptimizedPathsTest {
+
+    @Test
+    public void fusedStaysCloseToTheChain() {
+        ReferenceShaders.Params p = Fixtures.params();
+        assertClose("fused", chain(p), fused(p), 1.0, 24);
+        p.dispersionTaps = 1;
+        assertClose("fused, 1 tap", chain(p), fused(p), 1.0, 24);
+    }
+
+    @Test
+    public void displacementMapStaysCloseToTheChain() {
+        ReferenceShaders.Params p = Fixtures.params();
+        assertClose("displacement map", chain(p), displacement(p), 1.0, 24);
+        p.dispersionTaps = 1;
+        assertClose("displacement map, 1 tap", chain(p), displacement(p), 1.0, 24);
+    }
+
+    @Test
+    public void adaptiveTapsStayCloseToSevenTaps() {
+        ReferenceShaders.Params p = Fixtures.params();
+        int[] seven = chain(p);
+        p.adaptiveTaps = true;
+        assertClose("adaptive taps", seven, chain(p), 0.5, 8);
+        assertTrue(ReferenceShaders.maxDifference(seven, chain(p), seven.length) <= 16);
+    }
+
+    @Test
+    public void threeTapsStayCloseToSevenTaps() {
+        ReferenceShaders.Params p = Fixtures.params();
+        int[] seven = chain(p);
+        p.dispersionTaps = 3;
+        assertClose("3 taps", seven, chain(p), 1.5, 64);
+    }
+
+    @Test
+    public void reducedTapsMatchWithoutDispersion() {
+        ReferenceShaders.Params p = Fixtures.params();
+        p.chromaticAberration = 0f;
+        int[] seven = chain(p);
+        for (int taps : new int[]{1, 3}) {
+            p.dispersionTaps = taps;
+            int[] reduced = chain(p);
+            assertTrue(taps + " taps", ReferenceShaders.maxDifference(seven, reduced, seven.length) <= 1);
+        }
+    }
+
+    private static int[] chain(ReferenceShaders.Params p) {
+        return Fixtures.argb(ReferenceShaders.render(Fixtures.backdrop(), p));
+    }
+
+    private static int[] fused(ReferenceShaders.Params p) {
+        return Fixtures.argb(ReferenceShaders.fused(blurred(p), p));
+    }
+
+    private static int[] displacement(ReferenceShaders.Params p) {
+        return Fixtures.argb(ReferenceShaders.displacement(blurred(p), p, GoldenImageTest.map(p)));
+    }
+
+    private static FloatImage blurred(ReferenceShaders.Params p) {
+        return ReferenceShaders.clamp(ReferenceShaders.blur(Fixtures.backdrop(), p.blurRadius));
+    }
+
+    /**
+     * @param mean largest accepted average channel difference
+     * @param p99  largest accepted difference of 99 % of the pixels
+     */
+    private static void assertClose(String name, int[] expected, int[] actual, double mean, int p99) {
+        int[] differences = new int[expected.length];
+        for (int i = 0; i < expected.length; i++) {
+            differences[i] = ReferenceShaders.maxDifference(new int[]{expected[i]}, new int[]{actual[i]}, 1);
+        }
+        Arrays.sort(differences);
+        double meanDifference = Fixtures.meanDifference(expected, actual);
+        int percentile = differences[(int) (differences.length * 0.99)];
+        assertTrue(name + ": mean difference " + meanDifference, meanDifference <= mean);
+        assertTrue(name + ": 99th percentile difference " + percentile, percentile <= p99);
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright 2025 QmDeve
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author QmDeve
+ * @github https://github.com/QmDeve
+ * @since 2025-11-03
+ */
+
+package com.qmdeve.liquidglass.soft;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import com.sun.management.ThreadMXBean;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Steady state frames of the CPU backend must not allocate, on the rendering thread nor on
+ * the tile workers
+ */
+public class AllocationTest {
+
+    private static final int WARMUP_FRAMES = 2000;
+    private static final int FRAMES = 200;
+    // Slack for the counters themselves, far below a single buffer or task per frame
+    private static final long MAX_BYTES_PER_FRAME = 8;
+
+    @Test
+    public void rendersWithoutAllocating() {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        SoftGlassRenderer renderer = new SoftGlassRenderer();
+        renderer.setShape(240f, 160f, 40f, 20f, -30f, 1f);
+        renderer.setBlurRadius(12f);
+        renderer.setMaterial(0.2f, 0.1f, 1.5f);
+        renderer.setDispersion(0.5f, 0.3f, 7, true);
+        renderer.setTint(0.2f, 0.4f, 0.8f, 0.3f);
+        // A fixed scale keeps the buffer sizes of every frame the same
+        renderer.setMaxScale(0.5f);
+        renderer.setFrameBudget(Long.MAX_VALUE);
+
+        int w = renderer.getOutputWidth(), h = renderer.getOutputHeight(), margin = renderer.getMargin();
+        int[] source = new int[(w + 2 * margin) * (h + 2 * margin)];
+        int[] output = new int[w * h];
+        for (int i = 0; i < WARMUP_FRAMES; i++) frame(renderer, source, output);
+
+        long self = Thread.currentThread().getId();
+        long[] workers = tileThreads();
+        long[] before = new long[workers.length];
+        for (int i = 0; i < workers.length; i++) before[i] = threads.getThreadAllocatedBytes(workers[i]);
+        long start = threads.getThreadAllocatedBytes(self);
+
+        for (int i = 0; i < FRAMES; i++) frame(renderer, source, output);
+
+        long allocated = threads.getThreadAllocatedBytes(self) - start;
+        for (int i = 0; i < workers.length; i++) {
+            allocated += threads.getThreadAllocatedBytes(workers[i]) - before[i];
+        }
+        assertTrue(allocated + " B over " + FRAMES + " frames", allocated / FRAMES <= MAX_BYTES_PER_FRAME);
+    }
+
+    private static void frame(SoftGlassRenderer renderer, int[] source, int[] output) {
+        Arrays.fill(source, 0xff4080c0);
+        renderer.render(source, output);
+    }
+
+    private static long[] tileThreads() {
+        List<Long> ids = new ArrayList<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("LiquidGlass-tile")) ids.add(thread.getId());
+        }
+        long[] result = new long[ids.size()];
+        for (int i = 0; i < result.length; i++) result[i] = ids.get(i);
+        return result;
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * Copyright 2025 QmDeve
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author QmDeve
+ * @github https://github.com/QmDeve
+ * @since 2025-11-03
+ */
+
+package com.qmdeve.liquidglass.soft;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.qmdeve.liquidglass.reference.FloatImage;
+import com.qmdeve.liquidglass.reference.ReferenceShaders;
+
+import org.junit.Test;
+
+public class SoftGlassRendererTest {
+
+    private static final int WIDTH = 120, HEIGHT = 80;
+
+    @Test
+    public void matchesTheReferenceAtFullScale() {
+        for (int taps : new int[]{1, 3, 7}) {
+            SoftGlassRenderer renderer = renderer(taps);
+            renderer.setMaxScale(1f);
+            renderer.setFrameBudget(Long.MAX_VALUE);
+            // The renderer starts at half resolution and raises it after a run of fast frames
+            for (int i = 0; i < 100 && renderer.getScale() < 1f; i++) render(renderer, 0L);
+            assertEquals(1f, renderer.getScale(), 0f);
+
+            int[] output = render(renderer, 0L);
+            ReferenceShaders.Params p = new ReferenceShaders.Params();
+            p.width = WIDTH;
+            p.height = HEIGHT;
+            p.cornerRadius = 28f;
+            p.refractionHeight = 14f;
+            p.refractionAmount = -24f;
+            p.chromaticAberration = 0.5f;
+            p.dispersionTaps = taps;
+            int[] expected = new int[WIDTH * HEIGHT];
+            ReferenceShaders.render(FloatImage.fromArgb(backdrop(WIDTH, HEIGHT, 0), WIDTH, HEIGHT), p).toArgb(expected);
+            int difference = ReferenceShaders.maxDifference(expected, output, expected.length);
+            assertTrue(taps + " taps differ by " + difference, difference <= 1);
+        }
+    }
+
+    @Test
+    public void lowersTheScaleOverBudget() {
+        SoftGlassRenderer renderer = renderer(7);
+        renderer.setFrameBudget(1L);
+        float scale = renderer.getScale();
+        render(renderer, 0L);
+        assertEquals(scale / 2f, renderer.getScale(), 0f);
+    }
+
+    @Test
+    public void captureTimeCountsAgainstTheBudget() {
+        SoftGlassRenderer renderer = renderer(7);
+        renderer.setFrameBudget(1_000_000_000L);
+        float scale = renderer.getScale();
+        render(renderer, 0L);
+        assertEquals(scale, renderer.getScale(), 0f);
+
+        render(renderer, 2_000_000_000L);
+        assertEquals(scale / 2f, renderer.getScale(), 0f);
+        assertTrue(renderer.getLastRenderNanos() >= 2_000_000_000L);
+    }
+
+    @Test
+    public void maxScaleCapsTheResolution() {
+        SoftGlassRenderer renderer = renderer(7);
+        renderer.setMaxScale(0.25f);
+        renderer.setFrameBudget(Long.MAX_VALUE);
+        for (int i = 0; i < 100; i++) render(renderer, 0L);
+        assertEquals(0.25f, renderer.getScale(), 0f);
+        assertEquals(30, renderer.getOutputWidth());
+        assertEquals(20, renderer.getOutputHeight());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsBuffersThatAreTooSmall() {
+        SoftGlassRenderer renderer = renderer(7);
+        renderer.render(new int[1], new int[1]);
+    }
+
+    private static SoftGlassRenderer renderer(int taps) {
+        SoftGlassRenderer renderer = new SoftGlassRenderer();
+        renderer.setShape(WIDTH, HEIGHT, 28f, 14f, -24f, 1f);
+        renderer.setDispersion(0.5f, 0.3f, taps, false);
+        return renderer;
+    }
+
+    /**
+     * Render the backdrop at the current scale of the renderer, the margin repeats the edge
+     * pixels like the clamped sampling of the reference
+     */
+    private static int[] render(SoftGlassRenderer renderer, long captureNanos) {
+        int w = renderer.getOutputWidth(), h = renderer.getOutputHeight(), margin = renderer.getMargin();
+        int[] source = backdrop(w, h, margin);
+        int[] output = new int[w * h];
+        renderer.render(source, output, captureNanos);
+        return output;
+    }
+
+    /**
+     * Checkerboard over color gradients, {@code margin} pixels larger on every side
+     */
+    private static int[] backdrop(int w, int h, int margin) {
+        int sw = w + 2 * margin, sh = h + 2 * margin;
+        int[] argb = new int[sw * sh];
+        for (int sy = 0; sy < sh; sy++) {
+            int y = Math.max(0, Math.min(h - 1, sy - margin));
+            for (int sx = 0; sx < sw; sx++) {
+                int x = Math.max(0, Math.min(w - 1, sx - margin));
+                boolean light = ((x / 10) + (y / 10) & 1) == 0;
+                int r = light ? 230 : 30 + x;
+                int g = y * 255 / (h - 1);
+                int b = light ? 255 - x * 255 / (w - 1) : 40;
+                argb[sy * sw + sx] = 0xff000000 | r << 16 | g << 8 | b;
+            }
+        }
+        return argb;
+    }
+}
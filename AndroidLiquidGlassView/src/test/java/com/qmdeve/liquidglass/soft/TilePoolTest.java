@@ -0,0 +1,94 @@
+/**
+ * Copyright 2025 QmDeve
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author QmDeve
+ * @github https://github.com/QmDeve
+ * @since 2025-11-03
+ */
+
+package com.qmdeve.liquidglass.soft;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+public class TilePoolTest {
+
+    @Test
+    public void runsEveryIndexOnce() {
+        AtomicIntegerArray visits = new AtomicIntegerArray(1000);
+        TilePool.run(visits.length(), 8, (start, end) -> {
+            for (int i = start; i < end; i++) visits.incrementAndGet(i);
+        });
+        for (int i = 0; i < visits.length(); i++) {
+            assertEquals(1, visits.get(i));
+        }
+    }
+
+    @Test
+    public void workerFailureIsRethrown() {
+        IllegalStateException failure = new IllegalStateException();
+        try {
+            TilePool.run(100, 1, (start, end) -> {
+                if (start != 0) throw failure;
+            });
+            fail();
+        } catch (IllegalStateException e) {
+            assertSame(failure, e);
+        }
+    }
+
+    @Test
+    public void waitsForWorkersWhenTheCallerThrows() {
+        AtomicBoolean workerDone = new AtomicBoolean();
+        try {
+            TilePool.run(100, 1, (start, end) -> {
+                if (start == 0) throw new IllegalStateException();
+                sleep();
+                workerDone.set(true);
+            });
+            fail();
+        } catch (IllegalStateException e) {
+            assertTrue(workerDone.get());
+        }
+    }
+
+    @Test
+    public void waitsForWorkersWhenInterrupted() {
+        AtomicBoolean workerDone = new AtomicBoolean();
+        Thread.currentThread().interrupt();
+        TilePool.run(100, 1, (start, end) -> {
+            if (start == 0) return;
+            sleep();
+            workerDone.set(true);
+        });
+        assertTrue(workerDone.get());
+        assertTrue("interrupt is kept", Thread.interrupted());
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
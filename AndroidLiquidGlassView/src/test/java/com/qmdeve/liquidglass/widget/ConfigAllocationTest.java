@@ -0,0 +1,116 @@
+/**
+ * Copyright 2025 QmDeve
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author QmDeve
+ * @github https://github.com/QmDeve
+ * @since 2025-11-03
+ */
+
+package com.qmdeve.liquidglass.widget;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import com.qmdeve.liquidglass.GlassParams;
+import com.qmdeve.liquidglass.QualityTier;
+import com.sun.management.ThreadMXBean;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * The parameter update path of LiquidGlassView, setters through the batch, the reused builder
+ * and the diff, must not allocate when nothing changed and only the new snapshot otherwise
+ */
+public class ConfigAllocationTest {
+
+    private static final int WARMUP_FRAMES = 20000;
+    private static final int FRAMES = 1000;
+    private static final int SETTERS_PER_FRAME = 8;
+    // Slack for the counters themselves
+    private static final long MAX_BYTES_PER_UNCHANGED_FRAME = 8;
+    // One GlassParams, its fields plus the object header
+    private static final long MAX_BYTES_PER_CHANGED_FRAME = 160;
+
+    private final GlassConfig values = new GlassConfig();
+    private GlassParams applied = new GlassParams.Builder().size(300, 100).build();
+    private int rebuilds;
+    private final GlassConfig.Target glass = new GlassConfig.Target() {
+        @Override
+        public GlassParams getParams() {
+            return applied;
+        }
+
+        @Override
+        public void setParams(GlassParams params) {
+            if (params.diff(applied) != 0) rebuilds++;
+            applied = params;
+        }
+    };
+    private ConfigBatch batch;
+    private ThreadMXBean threads;
+
+    @Before
+    public void setUp() {
+        threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        batch = new ConfigBatch(new ConfigBatch.Scheduler() {
+            @Override
+            public void schedule() {
+            }
+
+            @Override
+            public void cancel() {
+            }
+        }, () -> values.apply(glass, QualityTier.FULL, 300, 100));
+    }
+
+    @Test
+    public void unchangedFramesDoNotAllocate() {
+        for (int i = 0; i < WARMUP_FRAMES; i++) frame(0.3f);
+        long allocated = measure(false);
+        assertTrue(allocated + " B over " + FRAMES + " frames",
+                allocated / FRAMES <= MAX_BYTES_PER_UNCHANGED_FRAME);
+    }
+
+    @Test
+    public void changedFramesAllocateOnlyTheSnapshot() {
+        for (int i = 0; i < WARMUP_FRAMES; i++) frame((i & 1) * 0.5f);
+        int before = rebuilds;
+        long allocated = measure(true);
+        assertTrue(rebuilds - before + " rebuilds", rebuilds - before == FRAMES);
+        assertTrue(allocated + " B over " + FRAMES + " frames",
+                allocated / FRAMES <= MAX_BYTES_PER_CHANGED_FRAME);
+    }
+
+    private long measure(boolean change) {
+        long self = Thread.currentThread().getId();
+        long start = threads.getThreadAllocatedBytes(self);
+        for (int i = 0; i < FRAMES; i++) frame(change ? (i & 1) * 0.5f : 0.3f);
+        return threads.getThreadAllocatedBytes(self) - start;
+    }
+
+    private void frame(float alpha) {
+        for (int i = 0; i < SETTERS_PER_FRAME; i++) {
+            values.tintAlpha = alpha;
+            batch.changed();
+        }
+        batch.onFrame();
+    }
+}
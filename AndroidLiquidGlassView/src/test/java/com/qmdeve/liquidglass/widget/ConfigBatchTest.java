@@ -0,0 +1,171 @@
+/**
+ * Copyright 2025 QmDeve
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author QmDeve
+ * @github https://github.com/QmDeve
+ * @since 2025-11-03
+ */
+
+package com.qmdeve.liquidglass.widget;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.qmdeve.liquidglass.GlassParams;
+import com.qmdeve.liquidglass.QualityTier;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Parameter changes of LiquidGlassView driven through the real batch and
+ * {@link GlassConfig#apply}, into a glass that counts the snapshots it receives
+ */
+public class ConfigBatchTest {
+
+    /**
+     * Counts what LiquidGlass.setParams would rebuild: a snapshot with a new version
+     */
+    private static final class CountingGlass implements GlassConfig.Target {
+        GlassParams params = new GlassParams.Builder().size(300, 100).build();
+        int applies, rebuilds, rebuiltStages;
+
+        @Override
+        public GlassParams getParams() {
+            return params;
+        }
+
+        @Override
+        public void setParams(GlassParams next) {
+            applies++;
+            if (next.version == params.version) return;
+            rebuilds++;
+            rebuiltStages |= next.diff(params);
+            params = next;
+        }
+    }
+
+    private int scheduled, cancelled;
+    private final GlassConfig values = new GlassConfig();
+    private final CountingGlass glass = new CountingGlass();
+    private ConfigBatch batch;
+
+    @Before
+    public void setUp() {
+        batch = new ConfigBatch(new ConfigBatch.Scheduler() {
+            @Override
+            public void schedule() {
+                scheduled++;
+            }
+
+            @Override
+            public void cancel() {
+                cancelled++;
+            }
+        }, () -> values.apply(glass, QualityTier.FULL, 300, 100));
+        // Start from what the view configured, so only later changes count
+        batch.changed();
+        batch.onFrame();
+        scheduled = 0;
+        glass.applies = glass.rebuilds = glass.rebuiltStages = 0;
+    }
+
+    @Test
+    public void tintColorIsOneRebuild() {
+        values.tintColorRed = 0.2f;
+        batch.changed();
+        values.tintColorGreen = 0.4f;
+        batch.changed();
+        values.tintColorBlue = 0.6f;
+        batch.changed();
+        assertEquals(1, scheduled);
+
+        batch.onFrame();
+        assertEquals(1, glass.rebuilds);
+        assertEquals(GlassParams.STAGE_TINT, glass.rebuiltStages);
+    }
+
+    @Test
+    public void oneRebuildPerFrame() {
+        for (int frame = 1; frame <= 3; frame++) {
+            for (int i = 0; i < 10; i++) {
+                values.tintAlpha = frame * 0.1f + i * 0.01f;
+                batch.changed();
+            }
+            assertEquals(frame - 1, glass.applies);
+            batch.onFrame();
+            assertEquals(frame, scheduled);
+            assertEquals(frame, glass.applies);
+            assertEquals(frame, glass.rebuilds);
+        }
+    }
+
+    @Test
+    public void unchangedValuesKeepTheSnapshot() {
+        GlassParams before = glass.params;
+        // A setter called with the value the view already has
+        batch.changed();
+        batch.onFrame();
+        assertEquals(1, glass.applies);
+        assertEquals(0, glass.rebuilds);
+        assertTrue(before == glass.params);
+    }
+
+    @Test
+    public void batchSchedulesOnceAtTheOutermostEnd() {
+        batch.begin();
+        values.tintAlpha = 0.3f;
+        batch.changed();
+        batch.begin();
+        values.blurRadius = 12f;
+        batch.changed();
+        batch.end();
+        assertEquals(0, scheduled);
+
+        batch.end();
+        assertEquals(1, scheduled);
+        batch.onFrame();
+        assertEquals(1, glass.rebuilds);
+        assertEquals(GlassParams.STAGE_TINT | GlassParams.STAGE_BLUR, glass.rebuiltStages);
+    }
+
+    @Test
+    public void emptyBatchSchedulesNothing() {
+        batch.begin();
+        batch.end();
+        batch.end();
+        assertEquals(0, scheduled);
+
+        batch.changed();
+        assertEquals(1, scheduled);
+    }
+
+    @Test
+    public void cancelDropsThePendingUpdate() {
+        values.tintAlpha = 0.3f;
+        batch.changed();
+        batch.cancel();
+        assertEquals(1, cancelled);
+        assertFalse(batch.isScheduled());
+
+        batch.onFrame();
+        assertEquals(0, glass.applies);
+
+        batch.changed();
+        assertTrue(batch.isScheduled());
+        assertEquals(2, scheduled);
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright 2025 QmDeve
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author QmDeve
+ * @github https://github.com/QmDeve
+ * @since 2025-11-06
+ */
+
+package com.qmdeve.liquidglass.widget;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.qmdeve.liquidglass.GlassParams;
+import com.qmdeve.liquidglass.QualityTier;
+
+import org.junit.Test;
+
+/**
+ * Quality tiers applied to the parameters of LiquidGlassView, walking down the default ladder
+ * must never raise the dispersion taps and must keep auto mode adaptive
+ */
+public class GlassConfigTest {
+
+    private static final int[] QUALITIES = {
+            GlassParams.DISPERSION_QUALITY_AUTO,
+            GlassParams.DISPERSION_QUALITY_LOW,
+            GlassParams.DISPERSION_QUALITY_MEDIUM,
+            GlassParams.DISPERSION_QUALITY_HIGH
+    };
+    private static final float[] OFFSETS = {0f, -2f, -8f, -70f, -200f};
+    private static final float[] DISPERSIONS = {0f, 0.1f, 0.5f, 1f};
+
+    private final GlassParams base = new GlassParams.Builder().size(300, 100).build();
+
+    @Test
+    public void lowerTiersNeverRaiseTheTaps() {
+        QualityTier[] ladder = QualityTier.defaultLadder();
+        for (int quality : QUALITIES) {
+            for (float offset : OFFSETS) {
+                for (float dispersion : DISPERSIONS) {
+                    GlassConfig values = config(quality, offset, dispersion);
+                    int previous = Integer.MAX_VALUE;
+                    for (int i = 0; i < ladder.length; i++) {
+                        int taps = values.build(base, ladder[i], 300, 100).dispersionTaps();
+                        assertTrue("quality " + quality + " offset " + offset + " dispersion "
+                                + dispersion + " tier " + i + ": " + taps + " > " + previous, taps <= previous);
+                        assertTrue(taps <= ladder[i].maxDispersionQuality);
+                        previous = taps;
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void autoStaysAdaptiveBelowTheCap() {
+        for (QualityTier tier : QualityTier.defaultLadder()) {
+            GlassParams params = config(GlassParams.DISPERSION_QUALITY_AUTO, -70f, 0.5f)
+                    .build(base, tier, 300, 100);
+            assertEquals(GlassParams.DISPERSION_QUALITY_AUTO, params.dispersionQuality);
+            assertEquals(Math.min(GlassParams.DISPERSION_QUALITY_HIGH, tier.maxDispersionQuality),
+                    params.dispersionTaps());
+
+            // A weak spread stays at one tap, the cap does not raise it
+            params = config(GlassParams.DISPERSION_QUALITY_AUTO, -0.5f, 0.5f)
+                    .build(base, tier, 300, 100);
+            assertEquals(GlassParams.DISPERSION_QUALITY_LOW, params.dispersionTaps());
+        }
+    }
+
+    @Test
+    public void explicitQualityIsCapped() {
+        QualityTier low = new QualityTier.Builder()
+                .maxDispersionQuality(GlassParams.DISPERSION_QUALITY_LOW).build();
+        GlassParams params = config(GlassParams.DISPERSION_QUALITY_HIGH, -70f, 0.5f)
+                .build(base, low, 300, 100);
+        assertEquals(GlassParams.DISPERSION_QUALITY_LOW, params.dispersionTaps());
+    }
+
+    private static GlassConfig config(int quality, float offset, float dispersion) {
+        GlassConfig values = new GlassConfig();
+        values.dispersionQuality = quality;
+        values.refractionOffset = offset;
+        values.dispersion = dispersion;
+        return values;
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright 2025 QmDeve
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author QmDeve
+ * @github https://github.com/QmDeve
+ * @since 2025-11-03
+ */
+
+
+package com.qmdeve.liquidglass.benchmark;
+
+import com.qmdeve.liquidglass.soft.BoxBlur;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Box blur of the CPU backend on a half resolution 900 x 300 glass with its blur margin
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BlurBenchmark {
+
+    @Param({"2", "8", "24"})
+    public float sigma;
+
+    private final int width = 480, height = 180;
+    private final BoxBlur blur = new BoxBlur();
+    private int[] pixels, scratch, columnSums;
+
+    @Setup
+    public void setup() {
+        pixels = Fixtures.checkerboard(width, height);
+        scratch = new int[width * height];
+        columnSums = new int[width * 4];
+    }
+
+    /**
+     * Blurs in place, the cost does not depend on the content so the input is not restored
+     */
+    @Benchmark
+    public int[] boxBlur() {
+        blur.apply(pixels, scratch, columnSums, width, height, sigma);
+        return pixels;
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * Copyright 2025 QmDeve
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author QmDeve
+ * @github https://github.com/QmDeve
+ * @since 2025-11-03
+ */
+
+
+package com.qmdeve.liquidglass.benchmark;
+
+import com.qmdeve.liquidglass.soft.DisplacementMap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distance field, gradient and refraction math for every pixel of a shape, the work the
+ * displacement map mode does once per shape and the shaders otherwise do every frame
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DisplacementMapBenchmark {
+
+    @Param({"360x120", "900x300"})
+    public String size;
+
+    private int width, height;
+    private int[] map;
+
+    @Setup
+    public void setup() {
+        String[] parts = size.split("x");
+        width = Integer.parseInt(parts[0]);
+        height = Integer.parseInt(parts[1]);
+        map = new int[DisplacementMap.quadrantWidth(width) * DisplacementMap.quadrantHeight(height) * 2];
+    }
+
+    @Benchmark
+    public int[] compute() {
+        DisplacementMap.compute(width, height, height * 0.37f, height * 0.18f, -height * 0.63f, 1f, 0.3f, map);
+        return map;
+    }
+}
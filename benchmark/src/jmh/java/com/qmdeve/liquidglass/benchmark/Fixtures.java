@@ -0,0 +1,44 @@
+/**
+ * Copyright 2025 QmDeve
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author QmDeve
+ * @github https://github.com/QmDeve
+ * @since 2025-11-03
+ */
+
+
+package com.qmdeve.liquidglass.benchmark;
+
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    /**
+     * Opaque 16 px checkerboard over a color gradient, busy enough to defeat any shortcut
+     */
+    static int[] checkerboard(int width, int height) {
+        int[] pixels = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int r = x * 255 / Math.max(1, width - 1);
+                int g = y * 255 / Math.max(1, height - 1);
+                int b = ((x / 16 + y / 16) & 1) == 0 ? 230 : 30;
+                pixels[y * width + x] = 0xff000000 | r << 16 | g << 8 | b;
+            }
+        }
+        return pixels;
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * Copyright 2025 QmDeve
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author QmDeve
+ * @github https://github.com/QmDeve
+ * @since 2025-11-03
+ */
+
+
+package com.qmdeve.liquidglass.benchmark;
+
+import com.qmdeve.liquidglass.soft.SoftGlassRenderer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full CPU frame (blur, refraction, material, dispersion, tint) of a 900 x 300 glass
+ * at half resolution
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class KernelBenchmark {
+
+    @Param({"1", "3", "7"})
+    public int taps;
+
+    private SoftGlassRenderer renderer;
+    private int[] source, input, output;
+
+    @Setup
+    public void setup() {
+        renderer = new SoftGlassRenderer();
+        renderer.setShape(900f, 300f, 110f, 55f, -190f, 1f);
+        renderer.setBlurRadius(8f);
+        renderer.setMaterial(0.1f, 0f, 1.5f);
+        renderer.setDispersion(0.5f, 0.3f, taps, false);
+        renderer.setTint(1f, 1f, 1f, 0.1f);
+        // Keep the scale fixed at 1/2 instead of adapting to the machine
+        renderer.setMaxScale(0.5f);
+        renderer.setFrameBudget(Long.MAX_VALUE);
+
+        int margin = renderer.getMargin();
+        int sw = renderer.getOutputWidth() + 2 * margin, sh = renderer.getOutputHeight() + 2 * margin;
+        source = Fixtures.checkerboard(sw, sh);
+        input = new int[source.length];
+        output = new int[renderer.getOutputWidth() * renderer.getOutputHeight()];
+    }
+
+    /**
+     * Includes copying the source, the renderer blurs its input in place
+     */
+    @Benchmark
+    public int[] renderFrame() {
+        System.arraycopy(source, 0, input, 0, source.length);
+        renderer.render(input, output);
+        return output;
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright 2025 QmDeve
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author QmDeve
+ * @github https://github.com/QmDeve
+ * @since 2025-11-03
+ */
+
+
+package com.qmdeve.liquidglass.benchmark;
+
+import com.qmdeve.liquidglass.GlassParams;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Change detection and snapshot creation done for every parameter update and pre-draw
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ParamsBenchmark {
+
+    private GlassParams base, sameVersion, tintChanged, shapeChanged;
+
+    @Setup
+    public void setup() {
+        base = new GlassParams.Builder()
+                .size(900, 300)
+                .cornerRadius(110f)
+                .refractionHeight(55f)
+                .refractionOffset(-190f)
+                .blurRadius(8f)
+                .dispersion(0.5f)
+                .build();
+        sameVersion = base;
+        tintChanged = base.buildUpon().tintAlpha(0.2f).build();
+        shapeChanged = base.buildUpon().cornerRadius(100f).build();
+    }
+
+    /**
+     * Pre-draw of a frame without parameter changes
+     */
+    @Benchmark
+    public int diffSameVersion() {
+        return sameVersion.diff(base);
+    }
+
+    @Benchmark
+    public int diffTint() {
+        return tintChanged.diff(base);
+    }
+
+    @Benchmark
+    public int diffShape() {
+        return shapeChanged.diff(base);
+    }
+
+    /**
+     * Setter called with the current value, the builder returns the existing snapshot
+     */
+    @Benchmark
+    public GlassParams buildUnchanged() {
+        return base.buildUpon().tintAlpha(0f).build();
+    }
+
+    @Benchmark
+    public GlassParams buildChanged() {
+        return base.buildUpon().tintAlpha(0.3f).build();
+    }
+
+    @Benchmark
+    public int dispersionTaps() {
+        return base.dispersionTaps();
+    }
+}
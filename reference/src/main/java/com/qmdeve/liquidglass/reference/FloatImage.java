@@ -0,0 +1,101 @@
+/**
+ * Copyright 2025 QmDeve
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author QmDeve
+ * @github https://github.com/QmDeve
+ * @since 2025-11-03
+ */
+
+
+package com.qmdeve.liquidglass.reference;
+
+/**
+ * RGBA image with float channels, the pixel format of the reference shaders.
+ * Channels are stored unpremultiplied; for opaque content this matches the premultiplied
+ * colors the GPU works with
+ */
+public final class FloatImage {
+
+    public final int width, height;
+    /**
+     * Red, green, blue, alpha per pixel, row by row
+     */
+    public final float[] pixels;
+
+    public FloatImage(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.pixels = new float[width * height * 4];
+    }
+
+    public static FloatImage fromArgb(int[] argb, int width, int height) {
+        FloatImage image = new FloatImage(width, height);
+        for (int i = 0, j = 0; i < width * height; i++, j += 4) {
+            int c = argb[i];
+            image.pixels[j] = ((c >> 16) & 0xff) / 255f;
+            image.pixels[j + 1] = ((c >> 8) & 0xff) / 255f;
+            image.pixels[j + 2] = (c & 0xff) / 255f;
+            image.pixels[j + 3] = (c >>> 24) / 255f;
+        }
+        return image;
+    }
+
+    /**
+     * @param out packed ARGB, channels clamped to 0..255
+     */
+    public void toArgb(int[] out) {
+        for (int i = 0, j = 0; i < width * height; i++, j += 4) {
+            out[i] = channel(pixels[j + 3]) << 24 | channel(pixels[j]) << 16
+                    | channel(pixels[j + 1]) << 8 | channel(pixels[j + 2]);
+        }
+    }
+
+    /**
+     * Sample like {@code shader.eval(coord)}: bilinear, pixel centers at .5, edges clamped
+     *
+     * @param out red, green, blue, alpha
+     */
+    public void eval(float x, float y, float[] out) {
+        float fx = x - 0.5f, fy = y - 0.5f;
+        int x0 = (int) Math.floor(fx), y0 = (int) Math.floor(fy);
+        float tx = fx - x0, ty = fy - y0;
+        int xa = clamp(x0, width - 1), xb = clamp(x0 + 1, width - 1);
+        int ya = clamp(y0, height - 1), yb = clamp(y0 + 1, height - 1);
+        int i00 = (ya * width + xa) * 4, i10 = (ya * width + xb) * 4;
+        int i01 = (yb * width + xa) * 4, i11 = (yb * width + xb) * 4;
+        for (int c = 0; c < 4; c++) {
+            float top = pixels[i00 + c] + (pixels[i10 + c] - pixels[i00 + c]) * tx;
+            float bottom = pixels[i01 + c] + (pixels[i11 + c] - pixels[i01 + c]) * tx;
+            out[c] = top + (bottom - top) * ty;
+        }
+    }
+
+    public void set(int x, int y, float[] rgba) {
+        System.arraycopy(rgba, 0, pixels, (y * width + x) * 4, 4);
+    }
+
+    public void get(int x, int y, float[] out) {
+        System.arraycopy(pixels, (y * width + x) * 4, out, 0, 4);
+    }
+
+    private static int clamp(int i, int last) {
+        return i < 0 ? 0 : (i > last ? last : i);
+    }
+
+    private static int channel(float v) {
+        int i = Math.round(v * 255f);
+        return i < 0 ? 0 : (i > 255 ? 255 : i);
+    }
+}
@@ -0,0 +1,590 @@
+/**
+ * Copyright 2025 QmDeve
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author QmDeve
+ * @github https://github.com/QmDeve
+ * @since 2025-11-03
+ */
+
+
+package com.qmdeve.liquidglass.reference;
+
+
+/**
+ * Line by line port of the glass shaders in {@code res/raw}, for checking optimized paths
+ * against on a JVM.
+ * <p>
+ * {@link #render} runs every stage of the effect chain as a separate pass over a
+ * {@link FloatImage}, in the order the chain runs them: blur, refraction, material, dispersion,
+ * tint. {@link #fused} and {@link #displacement} port the single pass shaders and run after the
+ * same blur. The math is kept as close to the AGSL as Java allows and favours readability over
+ * speed. Colors are floats instead of halfs and the blur is an exact gaussian, so GPU output is
+ * expected to match within a small tolerance, not bit for bit
+ */
+public final class ReferenceShaders {
+
+    // Seven dispersion taps: red, orange, yellow, green, cyan, blue, purple
+    private static final float[] OFFSETS = {1f, 2f / 3f, 1f / 3f, 0f, -1f / 3f, -2f / 3f, -1f};
+    private static final float[][] WEIGHTS = {
+            {1f / 3.5f, 0f, 0f},
+            {1f / 3.5f, 1f / 7f, 0f},
+            {1f / 3.5f, 1f / 3.5f, 0f},
+            {0f, 1f / 3.5f, 0f},
+            {0f, 1f / 3.5f, 1f / 3f},
+            {0f, 0f, 1f / 3f},
+            {1f / 7f, 0f, 1f / 3f}
+    };
+
+    /**
+     * Uniforms of the four shaders, in glass pixels
+     */
+    public static final class Params {
+        public float width, height, offsetX, offsetY;
+        public float cornerRadius, refractionHeight, refractionAmount, eccentricFactor = 1f;
+        public float depthEffect = 0.3f, chromaticAberration;
+        public int dispersionTaps = 7;
+        public boolean adaptiveTaps;
+        public float contrast, whitePoint, chromaMultiplier = 1f;
+        public float tintRed, tintGreen, tintBlue, tintAlpha;
+        public float blurRadius;
+    }
+
+    private ReferenceShaders() {
+    }
+
+    /**
+     * Whole effect chain of one pane. Chained effects hand their results over in 8 bit layers,
+     * so every intermediate result is clamped to 0..1
+     *
+     * @param source the backdrop in pane coordinates, pane origin at {@code (offsetX, offsetY)}
+     *               of the glass
+     */
+    public static FloatImage render(FloatImage source, Params p) {
+        FloatImage image = clamp(blur(source, p.blurRadius));
+        image = clamp(refraction(image, p));
+        image = clamp(material(image, p));
+        image = clamp(dispersion(image, p));
+        return clamp(tint(image, p));
+    }
+
+    public static FloatImage clamp(FloatImage image) {
+        float[] pixels = image.pixels;
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = Math.max(0f, Math.min(1f, pixels[i]));
+        }
+        return image;
+    }
+
+    public static FloatImage blur(FloatImage image, float sigma) {
+        if (sigma <= 0.01f) return image;
+        int radius = (int) Math.ceil(3f * sigma);
+        float[] kernel = new float[radius * 2 + 1];
+        float sum = 0f;
+        for (int i = -radius; i <= radius; i++) {
+            kernel[i + radius] = (float) Math.exp(-(i * i) / (2.0 * sigma * sigma));
+            sum += kernel[i + radius];
+        }
+        for (int i = 0; i < kernel.length; i++) kernel[i] /= sum;
+
+        FloatImage horizontal = new FloatImage(image.width, image.height);
+        FloatImage out = new FloatImage(image.width, image.height);
+        float[] c = new float[4];
+        float[] acc = new float[4];
+        for (int y = 0; y < image.height; y++) {
+            for (int x = 0; x < image.width; x++) {
+                acc[0] = acc[1] = acc[2] = acc[3] = 0f;
+                for (int i = -radius; i <= radius; i++) {
+                    image.get(clamp(x + i, image.width - 1), y, c);
+                    for (int k = 0; k < 4; k++) acc[k] += c[k] * kernel[i + radius];
+                }
+                horizontal.set(x, y, acc);
+            }
+        }
+        for (int y = 0; y < image.height; y++) {
+            for (int x = 0; x < image.width; x++) {
+                acc[0] = acc[1] = acc[2] = acc[3] = 0f;
+                for (int i = -radius; i <= radius; i++) {
+                    horizontal.get(x, clamp(y + i, image.height - 1), c);
+                    for (int k = 0; k < 4; k++) acc[k] += c[k] * kernel[i + radius];
+                }
+                out.set(x, y, acc);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * liquidglass_refraction_effect.agsl
+     */
+    public static FloatImage refraction(FloatImage image, Params p) {
+        FloatImage out = new FloatImage(image.width, image.height);
+        float[] color = new float[4];
+        for (int y = 0; y < out.height; y++) {
+            for (int x = 0; x < out.width; x++) {
+                float coordX = x + 0.5f + p.offsetX, coordY = y + 0.5f + p.offsetY;
+                float halfX = p.width * 0.5f, halfY = p.height * 0.5f;
+                float cx = coordX - halfX, cy = coordY - halfY;
+                float sd = sdRectangle(cx, cy, halfX - p.cornerRadius, halfY - p.cornerRadius) - p.cornerRadius;
+                sd = Math.min(sd, 0f);
+                if (sd <= 0f && -sd <= p.refractionHeight) {
+                    float maxGradRadius = Math.max(Math.min(halfX, halfY), p.cornerRadius);
+                    float gradRadius = Math.min(p.cornerRadius * 1.5f, maxGradRadius);
+                    float[] normal = gradSdRoundedRectangle(cx, cy, halfX, halfY, gradRadius);
+                    float refractedDistance = circleMap(1f - -sd / p.refractionHeight) * p.refractionAmount;
+                    float[] centered = normalize(cx, cy);
+                    float[] direction = normalize(normal[0] + p.eccentricFactor * centered[0],
+                            normal[1] + p.eccentricFactor * centered[1]);
+                    float rx = coordX + refractedDistance * direction[0];
+                    float ry = coordY + refractedDistance * direction[1];
+                    if (rx < 0f || rx >= p.width || ry < 0f || ry >= p.height) {
+                        color[0] = color[1] = color[2] = 0f;
+                        color[3] = 1f;
+                    } else {
+                        image.eval(rx - p.offsetX, ry - p.offsetY, color);
+                    }
+                } else {
+                    image.eval(coordX - p.offsetX, coordY - p.offsetY, color);
+                }
+                out.set(x, y, color);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * liquidglass_material_effect.agsl
+     */
+    public static FloatImage material(FloatImage image, Params p) {
+        FloatImage out = new FloatImage(image.width, image.height);
+        float[] color = new float[4];
+        for (int y = 0; y < out.height; y++) {
+            for (int x = 0; x < out.width; x++) {
+                image.get(x, y, color);
+                chroma(color, p);
+                whitePointContrast(color, p);
+                out.set(x, y, color);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * liquidglass_dispersion_effect.agsl
+     */
+    public static FloatImage dispersion(FloatImage content, Params p) {
+        FloatImage out = new FloatImage(content.width, content.height);
+        float[] color = new float[4];
+        float[] tap = new float[4];
+        for (int y = 0; y < out.height; y++) {
+            for (int x = 0; x < out.width; x++) {
+                float coordX = x + 0.5f, coordY = y + 0.5f;
+                float halfX = p.width * 0.5f, halfY = p.height * 0.5f;
+                float cx = coordX + p.offsetX - halfX, cy = coordY + p.offsetY - halfY;
+                float radius = p.cornerRadius;
+
+                float sd = sdRoundedRect(cx, cy, halfX, halfY, radius);
+                if (-sd >= p.refractionHeight) {
+                    content.eval(coordX, coordY, color);
+                    out.set(x, y, color);
+                    continue;
+                }
+                sd = Math.min(sd, 0f);
+
+                float d = circleMap(1f - -sd / p.refractionHeight) * p.refractionAmount;
+                float gradRadius = Math.min(radius * 1.5f, Math.min(halfX, halfY));
+                float[] g = gradSdRoundedRect(cx, cy, halfX, halfY, gradRadius);
+                float[] centered = normalize(cx, cy);
+                float[] grad = normalize(g[0] + p.depthEffect * centered[0], g[1] + p.depthEffect * centered[1]);
+
+                float rx = coordX + d * grad[0], ry = coordY + d * grad[1];
+                float intensity = p.chromaticAberration * ((cx * cy) / (halfX * halfY));
+                float dx = d * grad[0] * intensity, dy = d * grad[1] * intensity;
+
+                float taps = p.dispersionTaps;
+                if (p.adaptiveTaps) {
+                    float spread = (float) Math.sqrt(dx * dx + dy * dy);
+                    if (spread < 0.5f) taps = 1f;
+                    else if (spread < 2f) taps = Math.min(taps, 3f);
+                }
+                if (taps < 2f) {
+                    content.eval(rx, ry, color);
+                    out.set(x, y, color);
+                    continue;
+                }
+
+                color[0] = color[1] = color[2] = color[3] = 0f;
+                if (taps < 4f) {
+                    content.eval(rx + dx * (3f / 7f), ry + dy * (3f / 7f), tap);
+                    color[0] = tap[0];
+                    color[3] += tap[3];
+                    content.eval(rx, ry, tap);
+                    color[1] = tap[1];
+                    color[3] += tap[3];
+                    content.eval(rx - dx * (2f / 3f), ry - dy * (2f / 3f), tap);
+                    color[2] = tap[2];
+                    color[3] = (color[3] + tap[3]) / 3f;
+                    out.set(x, y, color);
+                    continue;
+                }
+
+                for (int i = 0; i < OFFSETS.length; i++) {
+                    content.eval(rx + dx * OFFSETS[i], ry + dy * OFFSETS[i], tap);
+                    color[0] += tap[0] * WEIGHTS[i][0];
+                    color[1] += tap[1] * WEIGHTS[i][1];
+                    color[2] += tap[2] * WEIGHTS[i][2];
+                    color[3] += tap[3] / 7f;
+                }
+                out.set(x, y, color);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * liquidglass_tint_effect.agsl
+     */
+    public static FloatImage tint(FloatImage content, Params p) {
+        FloatImage out = new FloatImage(content.width, content.height);
+        float[] color = new float[4];
+        float[] tint = {p.tintRed, p.tintGreen, p.tintBlue};
+        for (int y = 0; y < out.height; y++) {
+            for (int x = 0; x < out.width; x++) {
+                content.get(x, y, color);
+                for (int c = 0; c < 3; c++) {
+                    color[c] = color[c] + (tint[c] - color[c]) * p.tintAlpha;
+                }
+                out.set(x, y, color);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * liquidglass_fused_effect.agsl, after the blur
+     *
+     * @param image the blurred backdrop, placed like in {@link #render}
+     */
+    public static FloatImage fused(FloatImage image, Params p) {
+        FloatImage out = new FloatImage(image.width, image.height);
+        float[] color = new float[4];
+        float[] shift = new float[2];
+        Tap tap = (x, y, c) -> fusedRefracted(image, p, x, y, shift[0], shift[1], c);
+        for (int y = 0; y < out.height; y++) {
+            for (int x = 0; x < out.width; x++) {
+                float coordX = x + 0.5f + p.offsetX, coordY = y + 0.5f + p.offsetY;
+                float halfX = p.width * 0.5f, halfY = p.height * 0.5f;
+                float cx = coordX - halfX, cy = coordY - halfY;
+                float sd = sdRoundedRect(cx, cy, halfX, halfY, p.cornerRadius);
+                if (p.refractionHeight <= 0f || -sd >= p.refractionHeight) {
+                    fusedRefracted(image, p, coordX, coordY, 0f, 0f, color);
+                } else {
+                    sd = Math.min(sd, 0f);
+                    float d = circleMap(1f - -sd / p.refractionHeight) * p.refractionAmount;
+                    float gradRadius = Math.min(p.cornerRadius * 1.5f, Math.min(halfX, halfY));
+                    float[] g = gradSdRoundedRect(cx, cy, halfX, halfY, gradRadius);
+                    float[] centered = normalize(cx, cy);
+                    float[] grad = normalize(g[0] + p.depthEffect * centered[0], g[1] + p.depthEffect * centered[1]);
+                    float rx = coordX + d * grad[0], ry = coordY + d * grad[1];
+                    refractionShift(p, rx, ry, shift);
+                    float intensity = p.chromaticAberration * ((cx * cy) / (halfX * halfY));
+                    taps(p, rx, ry, d * grad[0] * intensity, d * grad[1] * intensity, tap, color);
+                }
+                finish(color, p);
+                out.set(x, y, color);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * {@code displacementScale} uniform of the displacement map shader
+     */
+    public static float displacementScale(float refractionAmount) {
+        return Math.max(1f, Math.abs(refractionAmount));
+    }
+
+    /**
+     * {@code displacementAt} of liquidglass_displacement_effect.agsl: mirror the coordinate into
+     * the stored quadrant and decode the two 12 bit values of the texel
+     *
+     * @param coordX     x of a pixel center in glass coordinates
+     * @param coordY     y of a pixel center in glass coordinates
+     * @param dispersion true for the dispersion half, false for the refraction half
+     * @param out        x and y displacement
+     */
+    public static void displacementAt(int[] map, int width, int height, float scale,
+                                      float coordX, float coordY, boolean dispersion, float[] out) {
+        int qw = (width + 1) / 2, qh = (height + 1) / 2;
+        float cx = coordX - width * 0.5f, cy = coordY - height * 0.5f;
+        int x = Math.min((int) Math.abs(cx), qw - 1), y = Math.min((int) Math.abs(cy), qh - 1);
+        int pixel = map[(dispersion ? qh + y : y) * qw + x];
+        int r = (pixel >> 16) & 0xff, g = (pixel >> 8) & 0xff, b = pixel & 0xff;
+        int kx = r << 4 | g >> 4, ky = (g & 0xf) << 8 | b;
+        out[0] = (kx - 2048) / 2047f * scale * Math.signum(cx);
+        out[1] = (ky - 2048) / 2047f * scale * Math.signum(cy);
+    }
+
+    /**
+     * liquidglass_displacement_effect.agsl, after the blur
+     *
+     * @param image the blurred backdrop, placed like in {@link #render}
+     * @param map   computed by {@code DisplacementMap.compute} for the shape of the params
+     */
+    public static FloatImage displacement(FloatImage image, Params p, int[] map) {
+        FloatImage out = new FloatImage(image.width, image.height);
+        float[] color = new float[4];
+        float[] shift = new float[2];
+        int width = (int) p.width, height = (int) p.height;
+        float scale = displacementScale(p.refractionAmount);
+        Tap tap = (x, y, c) -> {
+            float[] s = new float[2];
+            displacementAt(map, width, height, scale, x, y, false, s);
+            float rx = x + s[0], ry = y + s[1];
+            if (rx < 0f || rx >= p.width || ry < 0f || ry >= p.height) {
+                c[0] = c[1] = c[2] = 0f;
+                c[3] = 1f;
+                fusedMaterial(c, p);
+            } else {
+                fusedRefracted(image, p, rx, ry, 0f, 0f, c);
+            }
+        };
+        for (int y = 0; y < out.height; y++) {
+            for (int x = 0; x < out.width; x++) {
+                float coordX = x + 0.5f + p.offsetX, coordY = y + 0.5f + p.offsetY;
+                displacementAt(map, width, height, scale, coordX, coordY, true, shift);
+                if (shift[0] == 0f && shift[1] == 0f) {
+                    tap.eval(coordX, coordY, color);
+                } else {
+                    float halfX = p.width * 0.5f, halfY = p.height * 0.5f;
+                    float cx = coordX - halfX, cy = coordY - halfY;
+                    float intensity = p.chromaticAberration * ((cx * cy) / (halfX * halfY));
+                    taps(p, coordX + shift[0], coordY + shift[1],
+                            shift[0] * intensity, shift[1] * intensity, tap, color);
+                }
+                finish(color, p);
+                out.set(x, y, color);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Displacement of the refraction stage of the fused shader at a glass coordinate, the value
+     * the top half of a displacement map holds
+     *
+     * @param out x and y displacement
+     */
+    public static void refractionShift(Params p, float x, float y, float[] out) {
+        float halfX = p.width * 0.5f, halfY = p.height * 0.5f;
+        float cx = x - halfX, cy = y - halfY;
+        float sd = Math.min(sdRoundedRect(cx, cy, halfX, halfY, p.cornerRadius), 0f);
+        if (p.refractionHeight <= 0f || -sd > p.refractionHeight) {
+            out[0] = out[1] = 0f;
+            return;
+        }
+        float gradRadius = Math.min(p.cornerRadius * 1.5f, Math.max(Math.min(halfX, halfY), p.cornerRadius));
+        float[] normal = gradSdRoundedRect(cx, cy, halfX, halfY, gradRadius);
+        float d = circleMap(1f - -sd / p.refractionHeight) * p.refractionAmount;
+        float[] centered = normalize(cx, cy);
+        float[] direction = normalize(normal[0] + p.eccentricFactor * centered[0],
+                normal[1] + p.eccentricFactor * centered[1]);
+        out[0] = d * direction[0];
+        out[1] = d * direction[1];
+    }
+
+    /**
+     * One refracted and material adjusted sample of the single pass shaders
+     */
+    private interface Tap {
+        void eval(float x, float y, float[] out);
+    }
+
+    /**
+     * refracted() of the fused shader: the image at a displaced coordinate, then the material
+     */
+    private static void fusedRefracted(FloatImage image, Params p, float x, float y,
+                                       float shiftX, float shiftY, float[] out) {
+        float rx = x + shiftX, ry = y + shiftY;
+        if ((shiftX != 0f || shiftY != 0f) && (rx < 0f || rx >= p.width || ry < 0f || ry >= p.height)) {
+            out[0] = out[1] = out[2] = 0f;
+            out[3] = 1f;
+        } else {
+            image.eval(rx - p.offsetX, ry - p.offsetY, out);
+            clamp(out);
+        }
+        fusedMaterial(out, p);
+    }
+
+    private static void fusedMaterial(float[] color, Params p) {
+        if (p.chromaMultiplier != 1f) chroma(color, p);
+        whitePointContrast(color, p);
+        clamp(color);
+    }
+
+    /**
+     * Dispersion taps of the single pass shaders around the refracted coordinate
+     */
+    private static void taps(Params p, float rx, float ry, float dx, float dy, Tap tap, float[] color) {
+        float taps = p.dispersionTaps;
+        if (p.adaptiveTaps) {
+            float spread = (float) Math.sqrt(dx * dx + dy * dy);
+            if (spread < 0.5f) taps = 1f;
+            else if (spread < 2f) taps = Math.min(taps, 3f);
+        }
+        if (taps < 2f) {
+            tap.eval(rx, ry, color);
+            return;
+        }
+
+        float[] sample = new float[4];
+        color[0] = color[1] = color[2] = color[3] = 0f;
+        if (taps < 4f) {
+            tap.eval(rx + dx * (3f / 7f), ry + dy * (3f / 7f), sample);
+            color[0] = sample[0];
+            color[3] += sample[3];
+            tap.eval(rx, ry, sample);
+            color[1] = sample[1];
+            color[3] += sample[3];
+            tap.eval(rx - dx * (2f / 3f), ry - dy * (2f / 3f), sample);
+            color[2] = sample[2];
+            color[3] = (color[3] + sample[3]) / 3f;
+            return;
+        }
+
+        for (int i = 0; i < OFFSETS.length; i++) {
+            tap.eval(rx + dx * OFFSETS[i], ry + dy * OFFSETS[i], sample);
+            color[0] += sample[0] * WEIGHTS[i][0];
+            color[1] += sample[1] * WEIGHTS[i][1];
+            color[2] += sample[2] * WEIGHTS[i][2];
+            color[3] += sample[3] / 7f;
+        }
+    }
+
+    /**
+     * main() of the single pass shaders: clamp, then the tint
+     */
+    private static void finish(float[] color, Params p) {
+        clamp(color);
+        float[] tint = {p.tintRed, p.tintGreen, p.tintBlue};
+        for (int c = 0; c < 3; c++) {
+            color[c] = color[c] + (tint[c] - color[c]) * p.tintAlpha;
+        }
+    }
+
+    /**
+     * Largest difference of any channel between two packed ARGB images, 0..255
+     */
+    public static int maxDifference(int[] a, int[] b, int count) {
+        int max = 0;
+        for (int i = 0; i < count; i++) {
+            for (int shift = 0; shift < 32; shift += 8) {
+                int d = Math.abs(((a[i] >>> shift) & 0xff) - ((b[i] >>> shift) & 0xff));
+                if (d > max) max = d;
+            }
+        }
+        return max;
+    }
+
+    private static void chroma(float[] color, Params p) {
+        float r = toLinear(color[0]), g = toLinear(color[1]), b = toLinear(color[2]);
+        float luma = 0.2126f * r + 0.7152f * g + 0.0722f * b;
+        color[0] = fromLinear(luma + (r - luma) * p.chromaMultiplier);
+        color[1] = fromLinear(luma + (g - luma) * p.chromaMultiplier);
+        color[2] = fromLinear(luma + (b - luma) * p.chromaMultiplier);
+    }
+
+    private static void whitePointContrast(float[] color, Params p) {
+        float target = p.whitePoint > 0f ? 1f : 0f;
+        for (int c = 0; c < 3; c++) {
+            color[c] = color[c] + (target - color[c]) * Math.abs(p.whitePoint);
+            color[c] = (color[c] - 0.5f) * (1f + p.contrast) + 0.5f;
+        }
+    }
+
+    private static void clamp(float[] color) {
+        for (int c = 0; c < 4; c++) {
+            color[c] = Math.max(0f, Math.min(1f, color[c]));
+        }
+    }
+
+    private static float sdRectangle(float x, float y, float halfX, float halfY) {
+        float dx = Math.abs(x) - halfX, dy = Math.abs(y) - halfY;
+        float outside = (float) Math.sqrt(Math.max(dx, 0f) * Math.max(dx, 0f) + Math.max(dy, 0f) * Math.max(dy, 0f));
+        float inside = Math.min(Math.max(dx, dy), 0f);
+        return outside + inside;
+    }
+
+    private static float sdRoundedRect(float x, float y, float halfX, float halfY, float radius) {
+        float dx = Math.abs(x) - (halfX - radius), dy = Math.abs(y) - (halfY - radius);
+        float outside = (float) Math.sqrt(Math.max(dx, 0f) * Math.max(dx, 0f) + Math.max(dy, 0f) * Math.max(dy, 0f)) - radius;
+        float inside = Math.min(Math.max(dx, dy), 0f);
+        return outside + inside;
+    }
+
+    /**
+     * gradSdRoundedRectangle of the refraction shader
+     */
+    private static float[] gradSdRoundedRectangle(float x, float y, float halfX, float halfY, float r) {
+        float cornerX = Math.abs(x) - (halfX - r), cornerY = Math.abs(y) - (halfY - r);
+        if (cornerX >= 0f && cornerY >= 0f) {
+            float[] n = normalize(cornerX, cornerY);
+            return new float[]{Math.signum(x) * n[0], Math.signum(y) * n[1]};
+        }
+        return (-cornerX < -cornerY)
+                ? new float[]{Math.signum(x), 0f}
+                : new float[]{0f, Math.signum(y)};
+    }
+
+    /**
+     * gradSdRoundedRect of the dispersion shader
+     */
+    private static float[] gradSdRoundedRect(float x, float y, float halfX, float halfY, float r) {
+        float cornerX = Math.abs(x) - (halfX - r), cornerY = Math.abs(y) - (halfY - r);
+        if (cornerX >= 0f || cornerY >= 0f) {
+            float[] n = normalize(Math.max(cornerX, 0f), Math.max(cornerY, 0f));
+            return new float[]{Math.signum(x) * n[0], Math.signum(y) * n[1]};
+        }
+        float gradX = cornerX >= cornerY ? 1f : 0f;
+        return new float[]{Math.signum(x) * gradX, Math.signum(y) * (1f - gradX)};
+    }
+
+    /**
+     * normalize() of a zero vector is undefined in AGSL, zero is returned here
+     */
+    private static float[] normalize(float x, float y) {
+        float length = (float) Math.sqrt(x * x + y * y);
+        return length > 0f ? new float[]{x / length, y / length} : new float[]{0f, 0f};
+    }
+
+    private static float circleMap(float x) {
+        return 1f - (float) Math.sqrt(1f - x * x);
+    }
+
+    private static float toLinear(float v) {
+        float a = Math.abs(v);
+        float l = a <= 0.04045f ? a / 12.92f : (float) Math.pow((a + 0.055f) / 1.055f, 2.4);
+        return Math.copySign(l, v);
+    }
+
+    private static float fromLinear(float v) {
+        float a = Math.abs(v);
+        float s = a <= 0.0031308f ? a * 12.92f : 1.055f * (float) Math.pow(a, 1 / 2.4) - 0.055f;
+        return Math.copySign(s, v);
+    }
+
+    private static int clamp(int i, int last) {
+        return i < 0 ? 0 : (i > last ? last : i);
+    }
+}